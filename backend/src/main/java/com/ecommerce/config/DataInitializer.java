@@ -1,15 +1,19 @@
 package com.ecommerce.config;
 
+import com.ecommerce.model.Money;
 import com.ecommerce.model.Product;
 import com.ecommerce.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 
 @Component
+@Profile("!generate")
 public class DataInitializer implements CommandLineRunner {
 
     @Autowired
@@ -173,7 +177,7 @@ public class DataInitializer implements CommandLineRunner {
         Product product = new Product();
         product.setName(name);
         product.setDescription(description);
-        product.setPrice(price);
+        product.setPrice(Money.of(BigDecimal.valueOf(price)));
         product.setCategory(category);
         product.setStockQuantity(stockQuantity);
         product.setImageUrl(imageUrl);
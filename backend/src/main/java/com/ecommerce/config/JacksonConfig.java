@@ -0,0 +1,89 @@
+package com.ecommerce.config;
+
+import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Serialization setup for API responses. Spring Boot registers these modules with its
+ * {@link ObjectMapper}.
+ * <ul>
+ *   <li>Blackbird replaces reflective getter calls with generated lambdas.</li>
+ *   <li>Pages are written as a compact envelope. It drops Spring Data's {@code pageable} and
+ *       {@code sort} objects and keeps the fields clients read: {@code content}, {@code number},
+ *       {@code size}, {@code totalElements}, {@code totalPages}, {@code first}, {@code last} and
+ *       {@code empty}.</li>
+ * </ul>
+ * Serializers for the hot response types are resolved at startup, so the first request does not
+ * pay for introspection.
+ */
+@Configuration
+public class JacksonConfig {
+
+    private static final List<Class<?>> PREWARMED_TYPES = List.of(
+            ApiResponse.class, Product.class, ProductSummary.class, Order.class, Cart.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Static so that creating the modules does not need this configuration, which itself waits for
+    // the ObjectMapper the modules are registered with
+    @Bean
+    public static Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public static Module compactPageModule() {
+        SimpleModule module = new SimpleModule("CompactPage");
+        module.addSerializer(new PageSerializer());
+        return module;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarmSerializers() {
+        for (Class<?> type : PREWARMED_TYPES) {
+            objectMapper.canSerialize(type);
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static class PageSerializer extends StdSerializer<Page> {
+
+        PageSerializer() {
+            super(Page.class);
+        }
+
+        @Override
+        public void serialize(Page page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            provider.defaultSerializeField("content", page.getContent(), gen);
+            gen.writeNumberField("number", page.getNumber());
+            gen.writeNumberField("size", page.getSize());
+            gen.writeNumberField("totalElements", page.getTotalElements());
+            gen.writeNumberField("totalPages", page.getTotalPages());
+            gen.writeBooleanField("first", page.isFirst());
+            gen.writeBooleanField("last", page.isLast());
+            gen.writeBooleanField("empty", page.isEmpty());
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Product;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Converts amounts stored as decimal doubles to Int64 minor units, the storage format of
+ * {@link com.ecommerce.model.Money}. Runs on every startup, before the seed data and the in-memory
+ * catalog views. Documents are selected by BSON type and every field is converted only if it is
+ * still a double, so the migration is idempotent and cheap once done. Each document is rewritten
+ * by one server-side pipeline update (MongoDB 4.2+), and nothing is read into the application.
+ */
+@Component
+public class MoneyMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoneyMigration.class);
+
+    private static final Decimal128 HALF = new Decimal128(new BigDecimal("0.5"));
+    private static final Decimal128 MINUS_HALF = new Decimal128(new BigDecimal("-0.5"));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void migrate() {
+        long products = update(Product.class,
+                new Document("price", isDouble()),
+                new Document("price", minorUnits("$price")));
+
+        long carts = update(Cart.class,
+                new Document("$or", List.of(
+                        new Document("totalAmount", isDouble()),
+                        new Document("items.price", isDouble()))),
+                new Document("totalAmount", minorUnits("$totalAmount")).append("items", itemsInMinorUnits()));
+
+        long orders = update(Order.class,
+                new Document("$or", List.of(
+                        new Document("totalAmount", isDouble()),
+                        new Document("items.price", isDouble()))),
+                new Document("totalAmount", minorUnits("$totalAmount")).append("items", itemsInMinorUnits()));
+
+        if (products + carts + orders > 0) {
+            logger.info("Converted amounts to minor units: {} products, {} carts, {} orders", products, carts, orders);
+        }
+    }
+
+    private long update(Class<?> type, Document filter, Document set) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(type))
+                .updateMany(filter, List.of(new Document("$set", set)))
+                .getModifiedCount();
+    }
+
+    private static Document isDouble() {
+        return new Document("$type", "double");
+    }
+
+    private static Document itemsInMinorUnits() {
+        return new Document("$map", new Document()
+                .append("input", "$items")
+                .append("as", "item")
+                .append("in", new Document("$mergeObjects", List.of("$$item", new Document()
+                        .append("price", minorUnits("$$item.price"))
+                        .append("subtotal", minorUnits("$$item.subtotal"))))));
+    }
+
+    /**
+     * value * 100 rounded half up, as Int64, if the value is a double, otherwise unchanged. The
+     * double goes through Decimal128 first and is rounded by hand: multiplying the double itself
+     * turns 2.675 into 267.49999999999997, and {@code $round} rounds half to even. Either way the
+     * result would differ from the reads of {@link MongoConfig}.
+     */
+    private static Document minorUnits(String field) {
+        Document cents = new Document("$multiply", List.of(new Document("$toDecimal", field), 100));
+        Document half = new Document("$cond", List.of(
+                new Document("$gte", List.of(field, 0)), HALF, MINUS_HALF));
+        Document converted = new Document("$toLong", new Document("$trunc", List.of(
+                new Document("$add", List.of(cents, half)), 0)));
+        return new Document("$cond", List.of(
+                new Document("$eq", List.of(new Document("$type", field), "double")),
+                converted,
+                field));
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.Money;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(
+                new MoneyToLongConverter(),
+                new LongToMoneyConverter(),
+                new DoubleToMoneyConverter()));
+    }
+
+    // Money is stored as an Int64 count of minor units
+    @WritingConverter
+    static class MoneyToLongConverter implements Converter<Money, Long> {
+
+        @Override
+        public Long convert(Money source) {
+            return source.getMinor();
+        }
+    }
+
+    @ReadingConverter
+    static class LongToMoneyConverter implements Converter<Long, Money> {
+
+        @Override
+        public Money convert(Long source) {
+            return Money.ofMinor(source);
+        }
+    }
+
+    // Decimal amounts written before MoneyMigration ran
+    @ReadingConverter
+    static class DoubleToMoneyConverter implements Converter<Double, Money> {
+
+        @Override
+        public Money convert(Double source) {
+            return Money.of(BigDecimal.valueOf(source).setScale(Money.SCALE, RoundingMode.HALF_UP));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on the model classes ({@code @Indexed}, {@code @CompoundIndex},
+ * {@code @TextIndexed}) once the context is refreshed. That is before the seed data is written
+ * and before the in-memory catalog views are built. The model annotations are the single source
+ * of truth. Unlike {@code auto-index-creation}, this runs on every startup and does not depend on
+ * which entity happens to be touched first, and it logs each index it ensures.
+ *
+ * <p>Index creation is idempotent. An index that conflicts with an existing one (same name,
+ * different options) is logged and skipped, so a legacy index cannot keep the application from
+ * starting.
+ */
+@Component
+public class MongoIndexBootstrap {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexBootstrap.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void ensureIndexes() {
+        long start = System.currentTimeMillis();
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        int ensured = 0;
+        int failed = 0;
+
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                try {
+                    indexOps.ensureIndex(index);
+                    ensured++;
+                    logger.debug("Ensured index {} {} on {}", index.getIndexKeys().toJson(),
+                            index.getIndexOptions().toJson(), entity.getCollection());
+                } catch (DataAccessException e) {
+                    failed++;
+                    logger.warn("Could not ensure index {} on {}: {}", index.getIndexKeys().toJson(),
+                            entity.getCollection(), e.getMessage());
+                }
+            }
+        }
+        logger.info("Mongo indexes ensured: {} ok, {} failed in {} ms",
+                ensured, failed, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,366 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.Address;
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.model.UserRole;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Fills an empty database with a synthetic catalog, users, carts and order history for load and
+ * scale testing. Enabled with the {@code generate} profile, which also turns off the hand-written
+ * seed in {@link DataInitializer}.
+ *
+ * <p>Every document is a pure function of the seed and its index. Ids are derived from the index
+ * too, so orders and carts can reference products and users without reading them back. Batches
+ * are generated and inserted in parallel, and the output does not depend on the thread count.
+ * Product popularity, category sizes, customer activity and title words all follow Zipf
+ * distributions, so a few products and customers dominate like in real traffic.
+ */
+@Component
+@Profile("generate")
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    // Distinct id prefixes per collection so generated ObjectIds never collide; also used to give
+    // each kind of value its own random stream
+    private static final int PRODUCT_ID_TAG = 1;
+    private static final int USER_ID_TAG = 2;
+    private static final int ORDER_ID_TAG = 3;
+    private static final int CART_ID_TAG = 4;
+    private static final int PRICE_TAG = 5;
+
+    private static final String[] WORDS = {
+            "naruto", "goku", "titan", "dragon", "demon", "slayer", "ninja", "samurai", "spirit", "ghost",
+            "hero", "academia", "piece", "straw", "hat", "pirate", "wave", "sunset", "mountain", "forest",
+            "ocean", "lotus", "mandala", "buddha", "zen", "cosmic", "galaxy", "nebula", "abstract", "geometric",
+            "minimal", "vintage", "retro", "neon", "pastel", "watercolor", "canvas", "poster", "print", "wall",
+            "art", "framed", "limited", "edition", "collector", "classic", "modern", "portrait", "landscape", "city",
+            "night", "tokyo", "kyoto", "sakura", "blossom", "tiger", "koi", "crane", "phoenix", "wolf",
+            "fox", "moon", "sun", "star", "storm", "fire", "water", "earth", "wind", "shadow",
+            "light", "gold", "silver", "crimson", "azure", "emerald", "ivory", "onyx", "custom", "personalized"
+    };
+
+    private static final String[] CITIES = {"Mumbai", "Delhi", "Bengaluru", "Hyderabad", "Chennai", "Kolkata", "Pune", "Jaipur"};
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${generator.seed:42}")
+    private long seed;
+
+    @Value("${generator.products:100000}")
+    private int productCount;
+
+    @Value("${generator.categories:20}")
+    private int categoryCount;
+
+    @Value("${generator.users:10000}")
+    private int userCount;
+
+    @Value("${generator.cart-ratio:0.3}")
+    private double cartRatio;
+
+    @Value("${generator.orders:200000}")
+    private int orderCount;
+
+    @Value("${generator.history-days:365}")
+    private int historyDays;
+
+    @Value("${generator.zipf-exponent:1.1}")
+    private double zipfExponent;
+
+    @Value("${generator.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${generator.threads:4}")
+    private int threads;
+
+    @Value("${generator.password:password123}")
+    private String password;
+
+    private String[] categories;
+    private ZipfSampler productPopularity;
+    private ZipfSampler categorySizes;
+    private ZipfSampler customerActivity;
+    private ZipfSampler wordFrequency;
+    private LocalDateTime now;
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (mongoTemplate.estimatedCount(Product.class) > 0 || mongoTemplate.estimatedCount(User.class) > 0) {
+            logger.warn("Database is not empty, skipping synthetic data generation");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        categories = new String[categoryCount];
+        for (int i = 0; i < categoryCount; i++) {
+            categories[i] = "Category " + (i + 1);
+        }
+        productPopularity = new ZipfSampler(productCount, zipfExponent);
+        categorySizes = new ZipfSampler(categoryCount, zipfExponent);
+        customerActivity = new ZipfSampler(userCount, zipfExponent);
+        wordFrequency = new ZipfSampler(WORDS.length, zipfExponent);
+        // Timestamps count back from midnight, so reruns on the same day produce identical documents
+        now = LocalDateTime.now().toLocalDate().atStartOfDay();
+        String passwordHash = passwordEncoder.encode(password);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            insertAll(executor, productCount, Product.class, this::product);
+            insertAll(executor, userCount, User.class, i -> user(i, passwordHash));
+            insertAll(executor, userCount, Cart.class, this::cart);
+            insertAll(executor, orderCount, Order.class, this::order);
+        } finally {
+            executor.shutdown();
+        }
+        logger.info("Generated {} products in {} categories, {} users and {} orders (seed {}) in {} ms",
+                productCount, categoryCount, userCount, orderCount, seed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Generates documents {@code 0..count-1} in batches on the executor and inserts each batch
+     * with a single {@code insertMany}. A generator may return {@code null} to skip an index.
+     *
+     * <p>Batches are converted and written straight to the collection. {@code MongoTemplate.insert}
+     * would run the auditing callbacks, and {@code @LastModifiedDate} would replace the generated
+     * {@code updatedAt} with the wall clock.
+     */
+    private <T> void insertAll(ExecutorService executor, int count, Class<T> type, IntFunction<T> generator)
+            throws InterruptedException, ExecutionException {
+        long start = System.currentTimeMillis();
+        String collection = mongoTemplate.getCollectionName(type);
+        List<Future<?>> batches = new ArrayList<>();
+        for (int from = 0; from < count; from += batchSize) {
+            int batchStart = from;
+            int batchEnd = Math.min(count, from + batchSize);
+            batches.add(executor.submit(() -> {
+                List<Document> documents = new ArrayList<>(batchEnd - batchStart);
+                for (int i = batchStart; i < batchEnd; i++) {
+                    T entity = generator.apply(i);
+                    if (entity != null) {
+                        Document document = new Document();
+                        mongoTemplate.getConverter().write(entity, document);
+                        documents.add(document);
+                    }
+                }
+                if (!documents.isEmpty()) {
+                    mongoTemplate.getCollection(collection).insertMany(documents);
+                }
+            }));
+        }
+        for (Future<?> batch : batches) {
+            batch.get();
+        }
+        logger.info("Inserted {} {} documents in {} ms", count, type.getSimpleName(), System.currentTimeMillis() - start);
+    }
+
+    private Product product(int index) {
+        SplittableRandom random = random(PRODUCT_ID_TAG, index);
+        Product product = new Product();
+        product.setId(id(PRODUCT_ID_TAG, index));
+        product.setName(capitalize(words(random, 2 + random.nextInt(3))));
+        product.setDescription(capitalize(words(random, 10 + random.nextInt(20))) + ".");
+        product.setCategory(categories[categorySizes.sample(random)]);
+        product.setPrice(priceOf(index));
+        // Roughly one product in twenty is sold out
+        product.setStockQuantity(random.nextInt(20) == 0 ? 0 : 1 + random.nextInt(500));
+        product.setImageUrl("https://picsum.photos/seed/" + index + "/500");
+        product.setVersion(1L);
+        LocalDateTime createdAt = now.minusMinutes(random.nextLong((long) historyDays * 24 * 60));
+        product.setCreatedAt(createdAt);
+        product.setUpdatedAt(createdAt);
+        return product;
+    }
+
+    // Log-uniform between 199 and 9999, rounded like a shelf price
+    private Money priceOf(int productIndex) {
+        SplittableRandom random = random(PRICE_TAG, productIndex);
+        double price = 199 * Math.pow(9999.0 / 199, random.nextDouble());
+        return Money.ofMinor((Math.round(price / 50) * 50 - 1) * 100);
+    }
+
+    private String productName(int productIndex) {
+        SplittableRandom random = random(PRODUCT_ID_TAG, productIndex);
+        return capitalize(words(random, 2 + random.nextInt(3)));
+    }
+
+    // Replays the draws of product() up to the category
+    private String categoryOf(int productIndex) {
+        SplittableRandom random = random(PRODUCT_ID_TAG, productIndex);
+        words(random, 2 + random.nextInt(3));
+        words(random, 10 + random.nextInt(20));
+        return categories[categorySizes.sample(random)];
+    }
+
+    private User user(int index, String passwordHash) {
+        User user = new User();
+        user.setId(id(USER_ID_TAG, index));
+        user.setEmail(index == 0 ? "admin@example.test" : "user" + index + "@example.test");
+        user.setPassword(passwordHash);
+        user.setFirstName("User");
+        user.setLastName(Integer.toString(index));
+        user.setRole(index == 0 ? UserRole.ADMIN : UserRole.CUSTOMER);
+        user.setCreatedAt(now.minusDays(random(USER_ID_TAG, index).nextInt(historyDays + 1)));
+        return user;
+    }
+
+    private Cart cart(int userIndex) {
+        SplittableRandom random = random(CART_ID_TAG, userIndex);
+        if (random.nextDouble() >= cartRatio) {
+            return null;
+        }
+        Cart cart = new Cart();
+        cart.setId(id(CART_ID_TAG, userIndex));
+        cart.setUserId(id(USER_ID_TAG, userIndex));
+        cart.setItems(new ArrayList<>());
+        long total = 0;
+        for (int productIndex : distinctProducts(random, 1 + random.nextInt(4))) {
+            CartItem item = new CartItem(id(PRODUCT_ID_TAG, productIndex), productName(productIndex),
+                    1 + random.nextInt(3), priceOf(productIndex), null);
+            item.setSubtotal(item.getPrice().times(item.getQuantity()));
+            cart.getItems().add(item);
+            total += item.getSubtotal().getMinor();
+        }
+        cart.setTotalAmount(Money.ofMinor(total));
+        cart.setUpdatedAt(now.minusMinutes(random.nextInt(7 * 24 * 60)));
+        return cart;
+    }
+
+    private Order order(int index) {
+        SplittableRandom random = random(ORDER_ID_TAG, index);
+        Order order = new Order();
+        order.setId(id(ORDER_ID_TAG, index));
+        order.setUserId(id(USER_ID_TAG, customerActivity.sample(random)));
+        order.setItems(new ArrayList<>());
+        long total = 0;
+        for (int productIndex : distinctProducts(random, 1 + random.nextInt(5))) {
+            OrderItem item = new OrderItem(id(PRODUCT_ID_TAG, productIndex), productName(productIndex),
+                    categoryOf(productIndex), 1 + random.nextInt(3), priceOf(productIndex), null);
+            item.setSubtotal(item.getPrice().times(item.getQuantity()));
+            order.getItems().add(item);
+            total += item.getSubtotal().getMinor();
+        }
+        order.setTotalAmount(Money.ofMinor(total));
+        order.setShippingAddress(new Address(random.nextInt(1, 500) + " Main Road",
+                CITIES[random.nextInt(CITIES.length)], "State", Integer.toString(100000 + random.nextInt(900000)), "India"));
+
+        // Older orders have mostly been delivered; recent ones are still in flight
+        int ageMinutes = random.nextInt(historyDays * 24 * 60);
+        order.setStatus(statusFor(ageMinutes, random));
+        order.setCreatedAt(now.minusMinutes(ageMinutes));
+        order.setUpdatedAt(order.getCreatedAt());
+        return order;
+    }
+
+    private static OrderStatus statusFor(int ageMinutes, SplittableRandom random) {
+        if (random.nextInt(20) == 0) {
+            return OrderStatus.CANCELLED;
+        }
+        int ageDays = ageMinutes / (24 * 60);
+        if (ageDays >= 7) {
+            return OrderStatus.DELIVERED;
+        }
+        if (ageDays >= 2) {
+            return OrderStatus.SHIPPED;
+        }
+        return ageDays >= 1 ? OrderStatus.CONFIRMED : OrderStatus.PENDING;
+    }
+
+    private int[] distinctProducts(SplittableRandom random, int count) {
+        int[] products = new int[Math.min(count, productCount)];
+        int found = 0;
+        while (found < products.length) {
+            int candidate = productPopularity.sample(random);
+            boolean duplicate = false;
+            for (int i = 0; i < found; i++) {
+                duplicate |= products[i] == candidate;
+            }
+            if (!duplicate) {
+                products[found++] = candidate;
+            }
+        }
+        return products;
+    }
+
+    private String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[wordFrequency.sample(random)]);
+        }
+        return text.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    private SplittableRandom random(int tag, int index) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + ((long) tag << 32) + index);
+    }
+
+    // Valid 24-hex-digit ObjectId, so Spring stores it as an ObjectId like any generated id
+    private static String id(int tag, int index) {
+        return String.format("%08x%08x%08x", 0x66000000, tag, index);
+    }
+
+    /**
+     * Samples ranks {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^s} by
+     * binary search over the precomputed cumulative distribution.
+     */
+    private static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        private ZipfSampler(int n, double exponent) {
+            cumulative = new double[Math.max(1, n)];
+            double sum = 0;
+            for (int rank = 0; rank < cumulative.length; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < cumulative.length; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        private int sample(SplittableRandom random) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(rank >= 0 ? rank : -rank - 1, cumulative.length - 1);
+        }
+    }
+}
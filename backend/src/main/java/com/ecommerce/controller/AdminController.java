@@ -0,0 +1,106 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.search.ProductSuggester;
+import com.ecommerce.security.OffloadingPasswordEncoder;
+import com.ecommerce.security.RateLimitFilter;
+import com.ecommerce.service.BestsellerBoard;
+import com.ecommerce.service.CatalogVersion;
+import com.ecommerce.service.CategoryDirectory;
+import com.ecommerce.service.FrequentlyBoughtTogether;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.service.SearchResultCache;
+import com.ecommerce.web.ResponseCacheFilter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@Tag(name = "Admin", description = "Operational endpoints for administrators")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminController {
+
+    @Autowired
+    private OffloadingPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private SearchResultCache searchCache;
+
+    @Autowired
+    private ProductSuggester suggester;
+
+    @Autowired
+    private CategoryDirectory categoryDirectory;
+
+    @Autowired
+    private ResponseCacheFilter responseCacheFilter;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private FrequentlyBoughtTogether frequentlyBoughtTogether;
+
+    @Autowired
+    private BestsellerBoard bestsellerBoard;
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get runtime statistics (Admin only)", description = "Retrieve executor and cache counters for capacity tuning")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Statistics retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Forbidden - Admin role required", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+    })
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("passwordHashing", passwordEncoder.getStats());
+        stats.put("rateLimit", rateLimitFilter.getStats());
+        stats.put("productCache", productService.getCacheStats());
+        stats.put("searchIndex", searchIndex.getStats());
+        stats.put("searchCache", searchCache.getStats());
+        stats.put("suggester", suggester.getStats());
+        stats.put("categoryDirectory", categoryDirectory.getStats());
+        stats.put("responseCache", responseCacheFilter.getStats());
+        stats.put("catalogVersion", catalogVersion.getStats());
+        stats.put("relatedProducts", frequentlyBoughtTogether.getStats());
+        stats.put("bestsellers", bestsellerBoard.getStats());
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
+    @PostMapping("/recommendations/rebuild")
+    @Operation(summary = "Rebuild related products (Admin only)", description = "Recount frequently bought together pairs from the whole order history and replace the stored snapshot")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Rebuild finished", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Forbidden - Admin role required", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+    })
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildRecommendations() {
+        frequentlyBoughtTogether.rebuildFromHistory();
+        return ResponseEntity.ok(ApiResponse.success("Related products rebuilt", frequentlyBoughtTogether.getStats()));
+    }
+}
@@ -3,10 +3,11 @@ package com.ecommerce.controller;
 import com.ecommerce.dto.AddToCartRequest;
 import com.ecommerce.dto.ApiResponse;
 import com.ecommerce.dto.UpdateCartItemRequest;
+import com.ecommerce.dto.UpdateCartRequest;
 import com.ecommerce.model.Cart;
-import com.ecommerce.model.User;
+import com.ecommerce.security.AuthenticatedUser;
+import com.ecommerce.security.CurrentUser;
 import com.ecommerce.service.CartService;
-import com.ecommerce.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -17,7 +18,6 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -29,18 +29,14 @@ public class CartController {
     @Autowired
     private CartService cartService;
 
-    @Autowired
-    private UserService userService;
-
     @GetMapping
     @Operation(summary = "Get cart", description = "Retrieve the authenticated user's shopping cart")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Cart retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
-    public ResponseEntity<ApiResponse<Cart>> getCart(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userService.getUserByEmail(email);
+    public ResponseEntity<ApiResponse<Cart>> getCart(
+            @Parameter(hidden = true) @CurrentUser AuthenticatedUser user) {
         Cart cart = cartService.getCart(user.getId());
         return ResponseEntity.ok(ApiResponse.success(cart));
     }
@@ -53,10 +49,8 @@ public class CartController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
     public ResponseEntity<ApiResponse<Cart>> addItemToCart(
-            Authentication authentication,
+            @Parameter(hidden = true) @CurrentUser AuthenticatedUser user,
             @Valid @RequestBody AddToCartRequest request) {
-        String email = authentication.getName();
-        User user = userService.getUserByEmail(email);
         Cart cart = cartService.addItemToCart(user.getId(), request.getProductId(), request.getQuantity());
         return ResponseEntity.ok(ApiResponse.success("Item added to cart", cart));
     }
@@ -69,15 +63,28 @@ public class CartController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found in cart", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
     public ResponseEntity<ApiResponse<Cart>> updateCartItem(
-            Authentication authentication,
+            @Parameter(hidden = true) @CurrentUser AuthenticatedUser user,
             @Parameter(description = "Product ID") @PathVariable String productId,
             @Valid @RequestBody UpdateCartItemRequest request) {
-        String email = authentication.getName();
-        User user = userService.getUserByEmail(email);
         Cart cart = cartService.updateCartItemQuantity(user.getId(), productId, request.getQuantity());
         return ResponseEntity.ok(ApiResponse.success("Cart item updated", cart));
     }
 
+    @PatchMapping
+    @Operation(summary = "Update cart in batch", description = "Apply a list of ADD, UPDATE and REMOVE operations in order, with a single write. ADD and UPDATE take a quantity; ADD adds to an existing line, UPDATE replaces it")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Cart updated successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid operations", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found, or updated product not in cart", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+    })
+    public ResponseEntity<ApiResponse<Cart>> updateCart(
+            @Parameter(hidden = true) @CurrentUser AuthenticatedUser user,
+            @Valid @RequestBody UpdateCartRequest request) {
+        Cart cart = cartService.updateCart(user.getId(), request.getOperations());
+        return ResponseEntity.ok(ApiResponse.success("Cart updated", cart));
+    }
+
     @DeleteMapping("/items/{productId}")
     @Operation(summary = "Remove item from cart", description = "Remove a specific product from the shopping cart")
     @ApiResponses(value = {
@@ -85,10 +92,8 @@ public class CartController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
     public ResponseEntity<ApiResponse<Cart>> removeItemFromCart(
-            Authentication authentication,
+            @Parameter(hidden = true) @CurrentUser AuthenticatedUser user,
             @Parameter(description = "Product ID") @PathVariable String productId) {
-        String email = authentication.getName();
-        User user = userService.getUserByEmail(email);
         Cart cart = cartService.removeItemFromCart(user.getId(), productId);
         return ResponseEntity.ok(ApiResponse.success("Item removed from cart", cart));
     }
@@ -99,9 +104,8 @@ public class CartController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Cart cleared successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
-    public ResponseEntity<ApiResponse<Void>> clearCart(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userService.getUserByEmail(email);
+    public ResponseEntity<ApiResponse<Void>> clearCart(
+            @Parameter(hidden = true) @CurrentUser AuthenticatedUser user) {
         cartService.clearCart(user.getId());
         return ResponseEntity.ok(ApiResponse.success("Cart cleared", null));
     }
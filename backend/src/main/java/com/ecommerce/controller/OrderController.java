@@ -4,9 +4,9 @@ import com.ecommerce.dto.ApiResponse;
 import com.ecommerce.dto.OrderRequest;
 import com.ecommerce.model.Order;
 import com.ecommerce.model.OrderStatus;
-import com.ecommerce.model.User;
+import com.ecommerce.security.AuthenticatedUser;
+import com.ecommerce.security.CurrentUser;
 import com.ecommerce.service.OrderService;
-import com.ecommerce.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -19,7 +19,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -33,9 +32,6 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
-    @Autowired
-    private UserService userService;
-
     @PostMapping
     @Operation(summary = "Create an order", description = "Create a new order from the user's cart")
     @ApiResponses(value = {
@@ -44,10 +40,8 @@ public class OrderController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
     public ResponseEntity<ApiResponse<Order>> createOrder(
-            Authentication authentication,
+            @Parameter(hidden = true) @CurrentUser AuthenticatedUser user,
             @Valid @RequestBody OrderRequest request) {
-        String email = authentication.getName();
-        User user = userService.getUserByEmail(email);
         Order order = orderService.createOrder(user.getId(), request.getShippingAddress());
         return ResponseEntity
                 .status(HttpStatus.CREATED)
@@ -55,14 +49,18 @@ public class OrderController {
     }
 
     @GetMapping
-    @Operation(summary = "Get user orders", description = "Retrieve all orders for the authenticated user")
+    @Operation(summary = "Get user orders", description = "Retrieve all orders for the authenticated user. With a cursor parameter, returns newest-first slices")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Orders retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
-    public ResponseEntity<ApiResponse<List<Order>>> getUserOrders(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userService.getUserByEmail(email);
+    public ResponseEntity<ApiResponse<?>> getUserOrders(
+            @Parameter(hidden = true) @CurrentUser AuthenticatedUser user,
+            @Parameter(description = "Cursor from the previous slice; send an empty value to start cursor pagination") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Slice size in cursor mode") @RequestParam(defaultValue = "20") int size) {
+        if (cursor != null) {
+            return ResponseEntity.ok(ApiResponse.success(orderService.getUserOrders(user.getId(), cursor, size)));
+        }
         List<Order> orders = orderService.getUserOrders(user.getId());
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
@@ -76,15 +74,12 @@ public class OrderController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Order not found", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
     public ResponseEntity<ApiResponse<Order>> getOrderById(
-            Authentication authentication,
+            @Parameter(hidden = true) @CurrentUser AuthenticatedUser user,
             @Parameter(description = "Order ID") @PathVariable String id) {
         Order order = orderService.getOrderById(id);
 
         // Ensure user can only access their own orders (unless admin)
-        String email = authentication.getName();
-        User user = userService.getUserByEmail(email);
-
-        if (!order.getUserId().equals(user.getId()) && user.getRole().name().equals("CUSTOMER")) {
+        if (!order.getUserId().equals(user.getId()) && !user.isAdmin()) {
             return ResponseEntity
                     .status(HttpStatus.FORBIDDEN)
                     .body(ApiResponse.error("Access denied"));
@@ -111,13 +106,18 @@ public class OrderController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all orders (Admin only)", description = "Retrieve all orders in the system")
+    @Operation(summary = "Get all orders (Admin only)", description = "Retrieve all orders in the system. With a cursor parameter, returns newest-first slices")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "All orders retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Forbidden - Admin role required", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
-    public ResponseEntity<ApiResponse<List<Order>>> getAllOrders() {
+    public ResponseEntity<ApiResponse<?>> getAllOrders(
+            @Parameter(description = "Cursor from the previous slice; send an empty value to start cursor pagination") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Slice size in cursor mode") @RequestParam(defaultValue = "20") int size) {
+        if (cursor != null) {
+            return ResponseEntity.ok(ApiResponse.success(orderService.getAllOrders(cursor, size)));
+        }
         List<Order> orders = orderService.getAllOrders();
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
@@ -1,8 +1,20 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.dto.Bestseller;
+import com.ecommerce.dto.CategorySummary;
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.ProductImportResult;
+import com.ecommerce.dto.ProductQuery;
+import com.ecommerce.dto.ProductQueryResult;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.dto.Suggestion;
+import com.ecommerce.model.Money;
 import com.ecommerce.model.Product;
+import com.ecommerce.service.ProductExportService;
+import com.ecommerce.service.ProductImportService;
 import com.ecommerce.service.ProductService;
+import com.ecommerce.web.ResponseCacheFilter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,90 +22,255 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
 @Tag(name = "Products", description = "Product management and catalog endpoints")
 public class ProductController {
 
+    // Browsers may store catalog responses but must revalidate them with If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
     @GetMapping
-    @Operation(summary = "Get all products", description = "Retrieve a paginated list of all products")
+    @Operation(summary = "Get all products", description = "Retrieve a paginated list of all products. With a cursor parameter, returns a slice without a total count")
     @ApiResponses(value = {
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Products retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Products retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag in If-None-Match")
     })
-    public ResponseEntity<ApiResponse<Page<Product>>> getAllProducts(
+    public ResponseEntity<ApiResponse<?>> getAllProducts(
             @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Cursor from the previous slice; send an empty value to start cursor pagination") @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        String etag = catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        if (cursor != null) {
+            CursorPage<ProductSummary> slice = productService.getAllProducts(cursor, size);
+            exposeShownProducts(webRequest, slice.getContent());
+            return withEtag(etag, ApiResponse.success(slice));
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(ApiResponse.success(products));
+        Page<ProductSummary> products = productService.getAllProducts(pageable);
+        exposeShownProducts(webRequest, products.getContent());
+        return withEtag(etag, ApiResponse.success(products));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID", description = "Retrieve a single product by its ID")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Product found", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Product unchanged since the ETag in If-None-Match"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
     public ResponseEntity<ApiResponse<Product>> getProductById(
-            @Parameter(description = "Product ID") @PathVariable String id) {
+            @Parameter(description = "Product ID") @PathVariable String id,
+            WebRequest webRequest) {
+        // Served from the near-cache, so a matching ETag usually costs no database read
         Product product = productService.getProductById(id);
-        return ResponseEntity.ok(ApiResponse.success(product));
+        String etag = "W/\"" + (product.getVersion() == null ? 0 : product.getVersion()) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return withEtag(etag, ApiResponse.success(product));
+    }
+
+    @GetMapping("/{id}/related")
+    @Operation(summary = "Get frequently bought together products", description = "Retrieve the products most often ordered together with this one, most frequent first")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Related products retrieved", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Catalog and recommendations unchanged since the ETag in If-None-Match"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+    })
+    public ResponseEntity<ApiResponse<List<ProductSummary>>> getRelatedProducts(
+            @Parameter(description = "Product ID") @PathVariable String id,
+            @Parameter(description = "Maximum number of products") @RequestParam(defaultValue = "6") int limit,
+            WebRequest webRequest) {
+        String etag = relatedEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return withEtag(etag, ApiResponse.success(productService.getRelatedProducts(id, limit)));
     }
 
     @GetMapping("/search")
     @Operation(summary = "Search products", description = "Search products by name or description")
     @ApiResponses(value = {
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Search results retrieved", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Search results retrieved", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag in If-None-Match")
     })
-    public ResponseEntity<ApiResponse<Page<Product>>> searchProducts(
+    public ResponseEntity<ApiResponse<Page<ProductSummary>>> searchProducts(
             @Parameter(description = "Search query") @RequestParam String q,
             @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        String etag = catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.searchProducts(q, pageable);
-        return ResponseEntity.ok(ApiResponse.success(products));
+        Page<ProductSummary> products = productService.searchProducts(q, pageable);
+        return withEtag(etag, ApiResponse.success(products));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest completions", description = "Complete a typed prefix to product names and categories, most popular first. Served from memory without a database query")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Suggestions retrieved", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag in If-None-Match")
+    })
+    public ResponseEntity<ApiResponse<List<Suggestion>>> suggest(
+            @Parameter(description = "Prefix typed so far") @RequestParam String q,
+            @Parameter(description = "Maximum number of suggestions") @RequestParam(defaultValue = "8") int limit,
+            WebRequest webRequest) {
+        String etag = catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return withEtag(etag, ApiResponse.success(productService.suggest(q, limit)));
+    }
+
+    @GetMapping("/query")
+    @Operation(summary = "Query products with facets", description = "Filter by text, category, price range and stock in one request, and get category counts and a price histogram with the page")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Products retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag in If-None-Match"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid filter combination", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+    })
+    public ResponseEntity<ApiResponse<ProductQueryResult>> queryProducts(
+            @Parameter(description = "Full-text query") @RequestParam(required = false) String q,
+            @Parameter(description = "Category name") @RequestParam(required = false) String category,
+            @Parameter(description = "Minimum price") @RequestParam(required = false) Money minPrice,
+            @Parameter(description = "Maximum price") @RequestParam(required = false) Money maxPrice,
+            @Parameter(description = "Only products with stock") @RequestParam(defaultValue = "false") boolean inStock,
+            @Parameter(description = "Sort order") @RequestParam(defaultValue = "RELEVANCE") ProductQuery.SortOrder sort,
+            @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        String etag = catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        ProductQuery query = new ProductQuery(q, category, minPrice, maxPrice, inStock, sort);
+        ProductQueryResult result = productService.queryProducts(query, PageRequest.of(page, size));
+        return withEtag(etag, ApiResponse.success(result));
+    }
+
+    @GetMapping("/bestsellers")
+    @Operation(summary = "Get best sellers", description = "Retrieve the products with the most units sold over a recent window, overall or for one category. Served from in-memory counters refreshed every few seconds")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Best sellers retrieved", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Catalog and leaderboards unchanged since the ETag in If-None-Match"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Unknown window", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+    })
+    public ResponseEntity<ApiResponse<List<Bestseller>>> getBestsellers(
+            @Parameter(description = "Window: 1h, 24h or 7d") @RequestParam(defaultValue = "24h") String window,
+            @Parameter(description = "Category name; all categories when omitted") @RequestParam(required = false) String category,
+            @Parameter(description = "Maximum number of products") @RequestParam(defaultValue = "10") int limit,
+            WebRequest webRequest) {
+        String etag = bestsellerEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return withEtag(etag, ApiResponse.success(productService.getBestsellers(window, category, limit)));
+    }
+
+    @GetMapping("/categories")
+    @Operation(summary = "Get categories", description = "Retrieve every category with its product count, in-stock count and price range")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Categories retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag in If-None-Match")
+    })
+    public ResponseEntity<ApiResponse<List<CategorySummary>>> getCategories(WebRequest webRequest) {
+        String etag = catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return withEtag(etag, ApiResponse.success(productService.getCategories()));
     }
 
     @GetMapping("/category/{category}")
-    @Operation(summary = "Get products by category", description = "Retrieve products filtered by category")
+    @Operation(summary = "Get products by category", description = "Retrieve products filtered by category. With a cursor parameter, returns a slice without a total count")
     @ApiResponses(value = {
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Products retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Products retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag in If-None-Match")
     })
-    public ResponseEntity<ApiResponse<Page<Product>>> getProductsByCategory(
+    public ResponseEntity<ApiResponse<?>> getProductsByCategory(
             @Parameter(description = "Category name") @PathVariable String category,
             @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Cursor from the previous slice; send an empty value to start cursor pagination") @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        String etag = catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        if (cursor != null) {
+            CursorPage<ProductSummary> slice = productService.getProductsByCategory(category, cursor, size);
+            exposeShownProducts(webRequest, slice.getContent());
+            return withEtag(etag, ApiResponse.success(slice));
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.getProductsByCategory(category, pageable);
-        return ResponseEntity.ok(ApiResponse.success(products));
+        Page<ProductSummary> products = productService.getProductsByCategory(category, pageable);
+        exposeShownProducts(webRequest, products.getContent());
+        return withEtag(etag, ApiResponse.success(products));
     }
 
     @GetMapping("/price-range")
-    @Operation(summary = "Get products by price range", description = "Retrieve products within a specific price range")
+    @Operation(summary = "Get products by price range", description = "Retrieve products priced between minPrice and maxPrice, both inclusive. With a cursor parameter, returns a slice ordered by price without a total count")
     @ApiResponses(value = {
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Products retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Products retrieved successfully", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag in If-None-Match")
     })
-    public ResponseEntity<ApiResponse<Page<Product>>> getProductsByPriceRange(
-            @Parameter(description = "Minimum price") @RequestParam Double minPrice,
-            @Parameter(description = "Maximum price") @RequestParam Double maxPrice,
+    public ResponseEntity<ApiResponse<?>> getProductsByPriceRange(
+            @Parameter(description = "Minimum price") @RequestParam Money minPrice,
+            @Parameter(description = "Maximum price") @RequestParam Money maxPrice,
             @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Cursor from the previous slice; send an empty value to start cursor pagination") @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        String etag = catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        if (cursor != null) {
+            return withEtag(etag, ApiResponse.success(
+                    productService.getProductsByPriceRange(minPrice, maxPrice, cursor, size)));
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice, pageable);
-        return ResponseEntity.ok(ApiResponse.success(products));
+        Page<ProductSummary> products = productService.getProductsByPriceRange(minPrice, maxPrice, pageable);
+        return withEtag(etag, ApiResponse.success(products));
     }
 
     @PostMapping
@@ -112,6 +289,40 @@ public class ProductController {
                 .body(ApiResponse.success("Product created successfully", createdProduct));
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Bulk import products (Admin only)", description = "Stream a product feed as NDJSON (one product per line) or CSV (with a header row). Rows with an id are upserted, other rows are inserted. Invalid rows are reported and skipped")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Import finished, see the result for per-row errors", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Forbidden - Admin role required", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+    })
+    public ResponseEntity<ApiResponse<ProductImportResult>> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        ProductImportResult result = productImportService.importProducts(body, ProductImportService.formatOf(contentType));
+        return ResponseEntity.ok(ApiResponse.success("Import finished", result));
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export the catalog (Admin only)", description = "Stream every product as NDJSON (one product per line) in updatedAt order. With updatedSince, only products changed at or after that time are exported")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Products streamed"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid updatedSince", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Forbidden - Admin role required", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+    })
+    public void exportProducts(
+            @Parameter(description = "Only export products updated at or after this time (ISO-8601, e.g. 2024-01-15T10:30:00)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        productExportService.exportProducts(updatedSince, response.getOutputStream());
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Update a product (Admin only)", description = "Update an existing product")
@@ -144,4 +355,39 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.ok(ApiResponse.success("Product deleted successfully", null));
     }
+
+    // Catalog ETags are weak. They name the data version rather than the bytes, and Tomcat only
+    // compresses responses whose ETag is weak (or absent).
+
+    // List pages depend on the whole catalog, so they share one ETag per catalog version
+    private String catalogEtag() {
+        return "W/\"c" + productService.getCatalogVersion() + "\"";
+    }
+
+    // Related products also change when orders update the co-occurrence counters
+    private String relatedEtag() {
+        return "W/\"c" + productService.getCatalogVersion() + "-r" + productService.getRelatedVersion() + "\"";
+    }
+
+    // Best sellers also change when the board publishes new counts, without any product write
+    private String bestsellerEtag() {
+        return "W/\"c" + productService.getCatalogVersion() + "-b" + productService.getBestsellerVersion() + "\"";
+    }
+
+    // Lets the response cache drop only the pages that show a product whose stock changed
+    private static void exposeShownProducts(WebRequest webRequest, List<ProductSummary> products) {
+        String[] ids = new String[products.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = products.get(i).getId();
+        }
+        webRequest.setAttribute(ResponseCacheFilter.SHOWN_PRODUCTS_ATTRIBUTE, ids, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private static <T> ResponseEntity<T> withEtag(String etag, T body) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
 }
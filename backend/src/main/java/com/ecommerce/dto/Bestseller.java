@@ -0,0 +1,15 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Bestseller {
+
+    private ProductSummary product;
+    // Estimated units sold in the window; may overcount by at most the sketch error
+    private long unitsSold;
+}
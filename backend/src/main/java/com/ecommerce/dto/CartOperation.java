@@ -0,0 +1,27 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperation {
+
+    public enum Type { ADD, UPDATE, REMOVE }
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    @NotBlank(message = "Product ID is required")
+    private String productId;
+
+    // Required for ADD and UPDATE, ignored for REMOVE
+    @Positive(message = "Quantity must be positive")
+    private Integer quantity;
+}
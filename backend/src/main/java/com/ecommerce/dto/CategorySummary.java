@@ -0,0 +1,18 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySummary {
+
+    private String category;
+    private long productCount;
+    private long inStockCount;
+    private Money minPrice;
+    private Money maxPrice;
+}
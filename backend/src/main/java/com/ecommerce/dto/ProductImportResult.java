@@ -0,0 +1,32 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResult {
+
+    private long processed;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+
+    // Capped at the configured limit; failed still counts every rejected row
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
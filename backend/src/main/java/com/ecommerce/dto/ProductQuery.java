@@ -0,0 +1,27 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductQuery {
+
+    public enum SortOrder {
+        RELEVANCE,
+        PRICE_ASC,
+        PRICE_DESC,
+        NEWEST,
+        NAME
+    }
+
+    private String text;
+    private String category;
+    private Money minPrice;
+    private Money maxPrice;
+    private boolean inStockOnly;
+    private SortOrder sort = SortOrder.RELEVANCE;
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductQueryResult {
+
+    private List<ProductSummary> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    // Counts per category for the other filters, ignoring the category filter itself
+    private List<CategoryCount> categories;
+
+    // Histogram over the configured price boundaries, ignoring the price filter itself
+    private List<PriceBucket> priceBuckets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryCount {
+        private String category;
+        private long count;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket {
+        private Money min;
+        private Money max;
+        private long count;
+    }
+}
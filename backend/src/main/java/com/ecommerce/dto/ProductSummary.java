@@ -0,0 +1,25 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Listing view of a product: only the fields the product grid renders. Repository methods that
+ * return it read through a Mongo field projection, so descriptions and audit timestamps are
+ * neither fetched nor serialized. The full {@link com.ecommerce.model.Product} is served by
+ * {@code GET /api/products/{id}}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+
+    private String id;
+    private String name;
+    private Money price;
+    private String category;
+    private String imageUrl;
+    private Integer stockQuantity;
+}
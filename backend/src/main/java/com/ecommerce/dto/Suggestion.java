@@ -0,0 +1,18 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+
+    public enum Type { PRODUCT, CATEGORY }
+
+    private String text;
+    private Type type;
+    // Set for product suggestions only
+    private String productId;
+}
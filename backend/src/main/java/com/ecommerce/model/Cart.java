@@ -28,7 +28,7 @@ public class Cart {
 
     private List<CartItem> items = new ArrayList<>();
 
-    private Double totalAmount = 0.0;
+    private Money totalAmount = Money.ZERO;
 
     @LastModifiedDate
     private LocalDateTime updatedAt;
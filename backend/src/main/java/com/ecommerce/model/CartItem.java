@@ -22,8 +22,8 @@ public class CartItem {
     private Integer quantity;
 
     @NotNull(message = "Price is required")
-    @Positive(message = "Price must be positive")
-    private Double price;
+    @PositiveMoney(message = "Price must be positive")
+    private Money price;
 
-    private Double subtotal;
+    private Money subtotal;
 }
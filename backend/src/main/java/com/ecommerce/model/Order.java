@@ -6,7 +6,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotEmpty;
@@ -18,20 +19,26 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "orders")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_created_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_status_created", def = "{'userId': 1, 'status': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "status_created", def = "{'status': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "created_id", def = "{'createdAt': -1, '_id': -1}")
+})
 public class Order {
 
     @Id
     private String id;
 
+    // Covered by the userId prefix of user_created_id
     @NotNull(message = "User ID is required")
-    @Indexed
     private String userId;
 
     @NotEmpty(message = "Order must contain at least one item")
     private List<OrderItem> items;
 
     @NotNull(message = "Total amount is required")
-    private Double totalAmount;
+    private Money totalAmount;
 
     @NotNull(message = "Order status is required")
     private OrderStatus status;
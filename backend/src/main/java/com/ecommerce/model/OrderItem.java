@@ -17,13 +17,16 @@ public class OrderItem {
 
     private String productName;
 
+    // Copied from the product at order time, like productName
+    private String category;
+
     @NotNull(message = "Quantity is required")
     @Positive(message = "Quantity must be positive")
     private Integer quantity;
 
     @NotNull(message = "Price is required")
-    @Positive(message = "Price must be positive")
-    private Double price;
+    @PositiveMoney(message = "Price must be positive")
+    private Money price;
 
-    private Double subtotal;
+    private Money subtotal;
 }
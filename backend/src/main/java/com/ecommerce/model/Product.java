@@ -6,12 +6,14 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
 
@@ -19,6 +21,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "products")
+@CompoundIndexes({
+        @CompoundIndex(name = "category_price", def = "{'category': 1, 'price': 1}"),
+        @CompoundIndex(name = "stock_price", def = "{'stockQuantity': 1, 'price': 1}"),
+        @CompoundIndex(name = "category_id", def = "{'category': 1, '_id': 1}"),
+        @CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "updated_id", def = "{'updatedAt': 1, '_id': 1}")
+})
 public class Product {
 
     @Id
@@ -26,15 +35,18 @@ public class Product {
 
     @NotBlank(message = "Product name is required")
     @Indexed
+    @TextIndexed(weight = 3)
     private String name;
 
+    @TextIndexed
     private String description;
 
     @NotNull(message = "Price is required")
-    @Positive(message = "Price must be positive")
-    private Double price;
+    @PositiveMoney(message = "Price must be positive")
+    private Money price;
 
-    @Indexed
+    // Covered by the category prefix of category_price and category_id
+    @TextIndexed(weight = 2)
     private String category;
 
     @NotNull(message = "Stock quantity is required")
@@ -43,6 +55,10 @@ public class Product {
 
     private String imageUrl;
 
+    // Bumped by every write through ProductService; used as the product's ETag. Not @Version, so
+    // documents created before this field existed can still be saved.
+    private Long version;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
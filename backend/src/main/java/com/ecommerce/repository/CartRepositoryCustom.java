@@ -0,0 +1,57 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.CartOperation;
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.CartItem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cart mutations applied as single atomic updates rather than load-modify-save. Each one is a
+ * findAndModify whose pipeline edits the items and recomputes the total on the server, so
+ * concurrent requests for the same cart cannot lose each other's changes. Implemented by
+ * {@link CartRepositoryImpl}.
+ */
+public interface CartRepositoryCustom {
+
+    /**
+     * Adds the item's quantity to the line for its product, or appends the item if the cart has
+     * none. An existing line keeps its price. Creates the cart if the user has none.
+     *
+     * @return the cart after the update
+     */
+    Cart addItem(String userId, CartItem item);
+
+    /**
+     * Sets the quantity of the line for a product.
+     *
+     * @return the cart after the update, or {@code null} if the cart has no line for the product
+     */
+    Cart setItemQuantity(String userId, String productId, int quantity);
+
+    /**
+     * Removes the line for a product, if any. Creates the cart if the user has none.
+     *
+     * @return the cart after the update
+     */
+    Cart removeItem(String userId, String productId);
+
+    /**
+     * Applies the operations in order in a single update, with the semantics of
+     * {@link #addItem}, {@link #setItemQuantity} and {@link #removeItem}.
+     *
+     * @param newLines the line to append for each product added by an ADD operation, by product id
+     * @return the cart after the update, or {@code null}, with nothing written, if an UPDATE names
+     *         a line that is absent at that point of the batch: not in the cart and not added
+     *         earlier, or removed earlier and not added again
+     */
+    Cart applyOperations(String userId, List<CartOperation> operations, Map<String, CartItem> newLines);
+
+    /**
+     * Empties the cart, creating it if the user has none.
+     *
+     * @return the cart after the update
+     */
+    Cart clearItems(String userId);
+}
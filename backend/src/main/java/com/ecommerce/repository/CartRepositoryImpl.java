@@ -0,0 +1,164 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.CartOperation;
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.CartItem;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Money fields are written as raw minor units here, matching what
+ * {@link com.ecommerce.config.MongoConfig} stores, because pipeline stages bypass the converters.
+ */
+public class CartRepositoryImpl implements CartRepositoryCustom {
+
+    // Current value of the items array, empty for a cart being created by an upsert
+    private static final Document ITEMS = new Document("$ifNull", List.of("$items", List.of()));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Cart addItem(String userId, CartItem item) {
+        return update(where("userId").is(userId), List.of(added(item.getProductId(), item.getProductName(),
+                item.getPrice().getMinor(), item.getQuantity())), true);
+    }
+
+    @Override
+    public Cart setItemQuantity(String userId, String productId, int quantity) {
+        return update(where("userId").is(userId).and("items.productId").is(productId),
+                List.of(withQuantity(productId, quantity)), false);
+    }
+
+    @Override
+    public Cart removeItem(String userId, String productId) {
+        return update(where("userId").is(userId), List.of(removed(productId)), true);
+    }
+
+    @Override
+    public Cart applyOperations(String userId, List<CartOperation> operations, Map<String, CartItem> newLines) {
+        List<Document> items = new ArrayList<>(operations.size());
+        // Products an UPDATE expects to find in the cart as it was before the batch
+        Set<String> required = new HashSet<>();
+        // Lines the batch itself has added or removed so far, replayed in order
+        Set<String> added = new HashSet<>();
+        Set<String> removed = new HashSet<>();
+        for (CartOperation operation : operations) {
+            String productId = operation.getProductId();
+            switch (operation.getType()) {
+                case ADD -> {
+                    CartItem line = newLines.get(productId);
+                    items.add(added(productId, line.getProductName(), line.getPrice().getMinor(), operation.getQuantity()));
+                    added.add(productId);
+                    removed.remove(productId);
+                }
+                case UPDATE -> {
+                    if (removed.contains(productId)) {
+                        // No cart can have this line any more, whatever it held before the batch
+                        return null;
+                    }
+                    if (!added.contains(productId)) {
+                        required.add(productId);
+                    }
+                    items.add(withQuantity(productId, operation.getQuantity()));
+                }
+                case REMOVE -> {
+                    items.add(removed(productId));
+                    added.remove(productId);
+                    removed.add(productId);
+                }
+            }
+        }
+        Criteria criteria = where("userId").is(userId);
+        if (!required.isEmpty()) {
+            criteria.and("items.productId").all(required);
+        }
+        // An upsert cannot create the lines an UPDATE requires, so only batches without one create the cart
+        return update(criteria, items, required.isEmpty());
+    }
+
+    @Override
+    public Cart clearItems(String userId) {
+        Update update = new Update()
+                .set("items", new ArrayList<>())
+                .set("totalAmount", 0L)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(new Query(where("userId").is(userId)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Cart.class);
+    }
+
+    /**
+     * Sets the items to each expression in turn, each one reading the result of the previous, and
+     * the total to the sum of the new subtotals, in one findAndModify. The upsert only inserts
+     * when no cart matches, and the unique index on userId makes the server retry a racing insert
+     * as an update.
+     */
+    private Cart update(Criteria criteria, List<Document> items, boolean upsert) {
+        List<AggregationOperation> stages = new ArrayList<>(items.size() + 1);
+        for (Document expression : items) {
+            stages.add(set(new Document("items", expression)));
+        }
+        // $toLong keeps an empty cart's total an Int64 like every other amount
+        stages.add(set(new Document("totalAmount", new Document("$toLong", new Document("$sum", "$items.subtotal")))
+                // A Date, since the driver would write a LocalDateTime as UTC and Spring as local time
+                .append("updatedAt", new Date())));
+        return mongoTemplate.findAndModify(new Query(criteria), AggregationUpdate.from(stages),
+                FindAndModifyOptions.options().upsert(upsert).returnNew(true), Cart.class);
+    }
+
+    // Adds the quantity to the line for the product, which keeps its price, or appends a new line
+    private static Document added(String productId, String productName, long price, int quantity) {
+        Document line = new Document("productId", literal(productId))
+                .append("productName", literal(productName))
+                .append("quantity", quantity)
+                .append("price", price)
+                .append("subtotal", Math.multiplyExact(price, quantity));
+        return new Document("$cond", List.of(
+                new Document("$in", List.of(literal(productId), new Document("$map",
+                        new Document("input", ITEMS).append("as", "item").append("in", "$$item.productId")))),
+                withQuantity(productId, new Document("$add", List.of("$$item.quantity", quantity))),
+                new Document("$concatArrays", List.of(ITEMS, List.of(line)))));
+    }
+
+    // Replaces the quantity of one line and recomputes its subtotal from the line's own price
+    private static Document withQuantity(String productId, Object quantity) {
+        Document changed = new Document("$mergeObjects", List.of("$$item", new Document("quantity", quantity)
+                .append("subtotal", new Document("$multiply", List.of("$$item.price", quantity)))));
+        return new Document("$map", new Document("input", ITEMS)
+                .append("as", "item")
+                .append("in", new Document("$cond", List.of(
+                        new Document("$eq", List.of("$$item.productId", literal(productId))), changed, "$$item"))));
+    }
+
+    private static Document removed(String productId) {
+        return new Document("$filter", new Document("input", ITEMS)
+                .append("as", "item")
+                .append("cond", new Document("$ne", List.of("$$item.productId", literal(productId)))));
+    }
+
+    // Strings from requests and products could start with '$' and be read as field paths
+    private static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+
+    private static AggregationOperation set(Document fields) {
+        return context -> new Document("$set", fields);
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.CursorPage;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Keyset ("seek") pagination over a {@code (sortField, _id)} ordering. Each slice is read with a
+ * range predicate on the last seen key instead of {@code skip()}, and no count query is run, so
+ * the cost of a slice does not grow with its depth. Needs an index on the filter fields followed
+ * by {@code sortField} and {@code _id}.
+ *
+ * <p>Cursors are opaque URL-safe tokens that encode the last sort value and id.
+ */
+final class KeysetPaging {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private KeysetPaging() {
+    }
+
+    /**
+     * @param domainType the mapped document type, used for field and id conversion
+     * @param resultType the type to read; a projection type restricts the fields fetched
+     * @param sortField  the property to order by, or {@code null} to order by id only
+     * @param sortValue  extracts the sort property from a result, for building the next cursor
+     * @param cursor     the cursor from the previous slice, or {@code null}/empty for the first slice
+     */
+    static <T> CursorPage<T> find(MongoTemplate mongoTemplate, Class<?> domainType, Class<T> resultType, Criteria filter,
+            String sortField, Sort.Direction direction, Function<T, Object> sortValue, Function<T, String> idOf,
+            String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        Criteria criteria = filter;
+        if (cursor != null && !cursor.isEmpty()) {
+            Criteria seek = seek(sortField, direction, decode(cursor));
+            criteria = criteria == null ? seek : new Criteria().andOperator(criteria, seek);
+        }
+
+        Query query = criteria == null ? new Query() : new Query(criteria);
+        query.with(sortField == null
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sortField).and(Sort.by(direction, "id")));
+        query.limit(size + 1);
+
+        List<T> results = mongoTemplate.query(domainType).as(resultType).matching(query).all();
+        boolean hasNext = results.size() > size;
+        if (hasNext) {
+            results = results.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            T last = results.get(results.size() - 1);
+            nextCursor = encode(sortField == null ? null : sortValue.apply(last), idOf.apply(last));
+        }
+        return new CursorPage<>(results, size, hasNext, nextCursor);
+    }
+
+    private static Criteria seek(String sortField, Sort.Direction direction, Position position) {
+        boolean ascending = direction.isAscending();
+        Criteria idAfter = ascending ? where("id").gt(position.id) : where("id").lt(position.id);
+        if (sortField == null) {
+            return idAfter;
+        }
+        Criteria valueAfter = ascending
+                ? where(sortField).gt(position.value)
+                : where(sortField).lt(position.value);
+        return new Criteria().orOperator(
+                valueAfter,
+                new Criteria().andOperator(where(sortField).is(position.value), idAfter));
+    }
+
+    private static String encode(Object value, String id) {
+        String key;
+        if (value == null) {
+            key = "n:";
+        } else if (value instanceof Long || value instanceof Integer) {
+            key = "l:" + value;
+        } else if (value instanceof Number number) {
+            key = "d:" + number.doubleValue();
+        } else if (value instanceof LocalDateTime dateTime) {
+            key = "t:" + dateTime;
+        } else {
+            key = "s:" + value;
+        }
+        return ENCODER.encodeToString((key + "\n" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decode(String cursor) {
+        try {
+            String decoded = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('\n');
+            String key = decoded.substring(0, separator);
+            String id = decoded.substring(separator + 1);
+            String raw = key.substring(2);
+            Object value = switch (key.substring(0, 2)) {
+                case "n:" -> null;
+                case "l:" -> Long.valueOf(raw);
+                case "d:" -> Double.valueOf(raw);
+                case "t:" -> LocalDateTime.parse(raw);
+                case "s:" -> raw;
+                default -> throw new IllegalArgumentException();
+            };
+            return new Position(value, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private record Position(Object value, String id) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.model.Order;
+
+/**
+ * Order queries that need {@link org.springframework.data.mongodb.core.MongoTemplate} rather than
+ * derived query methods. Implemented by {@link OrderRepositoryImpl}.
+ */
+public interface OrderRepositoryCustom {
+
+    CursorPage<Order> findByUserIdAfter(String userId, String cursor, int size);
+
+    CursorPage<Order> findAllAfter(String cursor, int size);
+}
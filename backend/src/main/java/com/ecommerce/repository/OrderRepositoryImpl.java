@@ -0,0 +1,28 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Newest orders first
+    @Override
+    public CursorPage<Order> findByUserIdAfter(String userId, String cursor, int size) {
+        return KeysetPaging.find(mongoTemplate, Order.class, Order.class, where("userId").is(userId),
+                "createdAt", Sort.Direction.DESC, Order::getCreatedAt, Order::getId, cursor, size);
+    }
+
+    @Override
+    public CursorPage<Order> findAllAfter(String cursor, int size) {
+        return KeysetPaging.find(mongoTemplate, Order.class, Order.class, null,
+                "createdAt", Sort.Direction.DESC, Order::getCreatedAt, Order::getId, cursor, size);
+    }
+}
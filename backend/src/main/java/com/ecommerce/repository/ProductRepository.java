@@ -1,21 +1,30 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.model.Money;
 import com.ecommerce.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends MongoRepository<Product, String> {
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
 
-    Page<Product> findByCategory(String category, Pageable pageable);
+    // Listing queries return ProductSummary so only the grid fields are read from Mongo
 
-    Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    Page<ProductSummary> findByCategory(String category, Pageable pageable);
 
-    Page<Product> findByPriceBetween(Double minPrice, Double maxPrice, Pageable pageable);
+    Page<ProductSummary> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    // Pass Range.closed so the bounds are inclusive, like the cursor path and /query
+    Page<ProductSummary> findByPriceBetween(Range<Money> price, Pageable pageable);
+
+    List<ProductSummary> findByIdIn(Collection<String> ids);
 
     List<Product> findByStockQuantityGreaterThan(Integer quantity);
 }
@@ -0,0 +1,48 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.ProductQuery;
+import com.ecommerce.dto.ProductQueryResult;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Product queries that need {@link org.springframework.data.mongodb.core.MongoTemplate} rather than
+ * derived query methods. Implemented by {@link ProductRepositoryImpl}.
+ */
+public interface ProductRepositoryCustom {
+
+    ProductQueryResult query(ProductQuery query, Pageable pageable);
+
+    /**
+     * One page of the whole catalog, in id order unless the pageable is sorted. The total is the
+     * collection's estimated document count, so neither the page nor the count scans the collection.
+     */
+    Page<ProductSummary> findAllBy(Pageable pageable);
+
+    CursorPage<ProductSummary> findAllAfter(String cursor, int size);
+
+    CursorPage<ProductSummary> findByCategoryAfter(String category, String cursor, int size);
+
+    CursorPage<ProductSummary> findByPriceBetweenAfter(Money minPrice, Money maxPrice, String cursor, int size);
+
+    /**
+     * Atomically adds {@code delta} to the stock of a product and bumps its version. A negative
+     * delta only applies if at least {@code -delta} units are in stock.
+     *
+     * @return the product after the update with only category, price and stock loaded, or
+     *         {@code null} if no product has the given id or too little stock is left
+     */
+    Product adjustStock(String id, int delta);
+
+    /**
+     * Atomically sets the non-null fields of {@code details} and bumps the version. Other fields,
+     * in particular a stock level that concurrent orders are decrementing, are left untouched.
+     *
+     * @return the product after the update, or {@code null} if no product has the given id
+     */
+    Product updateDetails(String id, Product details);
+}
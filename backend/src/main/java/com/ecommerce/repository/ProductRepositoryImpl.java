@@ -0,0 +1,290 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.ProductQuery;
+import com.ecommerce.dto.ProductQueryResult;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String COLLECTION = "products";
+    private static final String OTHER_BUCKET = "other";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${catalog.price-buckets:0,500,1000,2000,5000,10000}")
+    private BigDecimal[] priceBuckets;
+
+    // The configured boundaries in minor units, as prices are stored
+    private long[] priceBoundaries;
+
+    @PostConstruct
+    void init() {
+        priceBoundaries = new long[priceBuckets.length];
+        for (int i = 0; i < priceBuckets.length; i++) {
+            priceBoundaries[i] = Money.of(priceBuckets[i]).getMinor();
+        }
+    }
+
+    /**
+     * Runs the page, total, category counts and price histogram as one {@code $facet} aggregation.
+     * Text and stock filters run before the facet so they can use the text and stock indexes. Each
+     * facet then applies the remaining filters, except that the category counts ignore the category
+     * filter and the histogram ignores the price filter. That way the UI can offer alternatives.
+     */
+    @Override
+    public ProductQueryResult query(ProductQuery query, Pageable pageable) {
+        boolean hasText = StringUtils.hasText(query.getText());
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        if (hasText) {
+            pipeline.add(Aggregation.match(TextCriteria.forDefaultLanguage().matching(query.getText())));
+        }
+        if (query.isInStockOnly()) {
+            pipeline.add(Aggregation.match(where("stockQuantity").gt(0)));
+        }
+        if (hasText) {
+            pipeline.add(raw("$addFields", new Document("score", new Document("$meta", "textScore"))));
+        }
+
+        Criteria categoryCriteria = StringUtils.hasText(query.getCategory())
+                ? where("category").is(query.getCategory())
+                : null;
+        Criteria priceCriteria = priceCriteria(query.getMinPrice(), query.getMaxPrice());
+
+        pipeline.add(Aggregation
+                .facet(stages(
+                        match(categoryCriteria, priceCriteria),
+                        raw("$sort", sortDocument(query.getSort(), hasText)),
+                        Aggregation.skip(pageable.getOffset()),
+                        Aggregation.limit(pageable.getPageSize()),
+                        Aggregation.project("name", "price", "category", "imageUrl", "stockQuantity")))
+                .as("items")
+                .and(stages(
+                        match(categoryCriteria, priceCriteria),
+                        Aggregation.count().as("count")))
+                .as("total")
+                .and(stages(
+                        match(priceCriteria),
+                        Aggregation.sortByCount("category")))
+                .as("categories")
+                .and(stages(
+                        match(categoryCriteria),
+                        Aggregation.bucket("price")
+                                .withBoundaries(boxedBoundaries())
+                                .withDefaultBucket(OTHER_BUCKET)
+                                .andOutputCount().as("count")))
+                .as("priceBuckets"));
+
+        Document result = mongoTemplate
+                .aggregate(Aggregation.newAggregation(pipeline), COLLECTION, Document.class)
+                .getUniqueMappedResult();
+
+        return toResult(result, pageable);
+    }
+
+    @Override
+    public Page<ProductSummary> findAllBy(Pageable pageable) {
+        Query query = new Query().with(pageable);
+        if (pageable.getSort().isUnsorted()) {
+            query.with(Sort.by("id"));
+        }
+        List<ProductSummary> content = mongoTemplate.query(Product.class).as(ProductSummary.class).matching(query).all();
+        return PageableExecutionUtils.getPage(content, pageable, () -> mongoTemplate.estimatedCount(Product.class));
+    }
+
+    @Override
+    public CursorPage<ProductSummary> findAllAfter(String cursor, int size) {
+        return KeysetPaging.find(mongoTemplate, Product.class, ProductSummary.class, null,
+                null, Sort.Direction.ASC, null, ProductSummary::getId, cursor, size);
+    }
+
+    @Override
+    public CursorPage<ProductSummary> findByCategoryAfter(String category, String cursor, int size) {
+        return KeysetPaging.find(mongoTemplate, Product.class, ProductSummary.class, where("category").is(category),
+                null, Sort.Direction.ASC, null, ProductSummary::getId, cursor, size);
+    }
+
+    @Override
+    public CursorPage<ProductSummary> findByPriceBetweenAfter(Money minPrice, Money maxPrice, String cursor, int size) {
+        return KeysetPaging.find(mongoTemplate, Product.class, ProductSummary.class, priceCriteria(minPrice, maxPrice),
+                "price", Sort.Direction.ASC, product -> product.getPrice().getMinor(), ProductSummary::getId, cursor, size);
+    }
+
+    @Override
+    public Product adjustStock(String id, int delta) {
+        // A single $inc, so concurrent orders cannot lose each other's updates or reuse a version.
+        // A decrement only matches while enough stock is left, so two orders cannot oversell.
+        Criteria criteria = where("_id").is(id);
+        if (delta < 0) {
+            criteria = criteria.and("stockQuantity").gte(-delta);
+        }
+        Query query = new Query(criteria);
+        query.fields().include("category", "price", "stockQuantity");
+        Update update = new Update()
+                .inc("stockQuantity", delta)
+                .inc("version", 1)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    @Override
+    public Product updateDetails(String id, Product details) {
+        Update update = new Update()
+                .inc("version", 1)
+                .set("updatedAt", LocalDateTime.now());
+        if (details.getName() != null) {
+            update.set("name", details.getName());
+        }
+        if (details.getDescription() != null) {
+            update.set("description", details.getDescription());
+        }
+        if (details.getPrice() != null) {
+            update.set("price", details.getPrice().getMinor());
+        }
+        if (details.getCategory() != null) {
+            update.set("category", details.getCategory());
+        }
+        if (details.getStockQuantity() != null) {
+            update.set("stockQuantity", details.getStockQuantity());
+        }
+        if (details.getImageUrl() != null) {
+            update.set("imageUrl", details.getImageUrl());
+        }
+        return mongoTemplate.findAndModify(new Query(where("_id").is(id)), update,
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    private ProductQueryResult toResult(Document result, Pageable pageable) {
+        List<ProductSummary> items = new ArrayList<>();
+        for (Document item : result.getList("items", Document.class)) {
+            items.add(mongoTemplate.getConverter().read(ProductSummary.class, item));
+        }
+
+        List<Document> totalDocs = result.getList("total", Document.class);
+        long total = totalDocs.isEmpty() ? 0 : ((Number) totalDocs.get(0).get("count")).longValue();
+
+        List<ProductQueryResult.CategoryCount> categories = new ArrayList<>();
+        for (Document category : result.getList("categories", Document.class)) {
+            categories.add(new ProductQueryResult.CategoryCount(
+                    category.getString("_id"), ((Number) category.get("count")).longValue()));
+        }
+
+        Map<Object, Long> bucketCounts = new LinkedHashMap<>();
+        for (Document bucket : result.getList("priceBuckets", Document.class)) {
+            Object id = bucket.get("_id");
+            bucketCounts.put(id instanceof Number number ? (Object) number.longValue() : id,
+                    ((Number) bucket.get("count")).longValue());
+        }
+        List<ProductQueryResult.PriceBucket> priceBuckets = new ArrayList<>();
+        for (int i = 0; i < priceBoundaries.length - 1; i++) {
+            priceBuckets.add(new ProductQueryResult.PriceBucket(
+                    Money.ofMinor(priceBoundaries[i]), Money.ofMinor(priceBoundaries[i + 1]),
+                    bucketCounts.getOrDefault(priceBoundaries[i], 0L)));
+        }
+        priceBuckets.add(new ProductQueryResult.PriceBucket(
+                Money.ofMinor(priceBoundaries[priceBoundaries.length - 1]), null,
+                bucketCounts.getOrDefault(OTHER_BUCKET, 0L)));
+
+        int totalPages = pageable.getPageSize() == 0 ? 1 : (int) Math.ceil((double) total / pageable.getPageSize());
+        return new ProductQueryResult(items, pageable.getPageNumber(), pageable.getPageSize(), total, totalPages,
+                categories, priceBuckets);
+    }
+
+    private static Criteria priceCriteria(Money minPrice, Money maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return null;
+        }
+        Criteria criteria = where("price");
+        if (minPrice != null) {
+            criteria = criteria.gte(minPrice.getMinor());
+        }
+        if (maxPrice != null) {
+            criteria = criteria.lte(maxPrice.getMinor());
+        }
+        return criteria;
+    }
+
+    private static Document sortDocument(ProductQuery.SortOrder sort, boolean hasText) {
+        Document document = new Document();
+        switch (sort) {
+            case PRICE_ASC -> document.append("price", 1);
+            case PRICE_DESC -> document.append("price", -1);
+            case NEWEST -> document.append("createdAt", -1);
+            case NAME -> document.append("name", 1);
+            case RELEVANCE -> {
+                // The facet sub-pipeline has no $text of its own, so sort on the score that the
+                // $addFields before the facet materialized rather than on {$meta: "textScore"}
+                if (hasText) {
+                    document.append("score", -1);
+                }
+            }
+        }
+        // Tie-break on _id so pages are stable
+        return document.append("_id", 1);
+    }
+
+    private static AggregationOperation match(Criteria... criteria) {
+        List<Criteria> present = new ArrayList<>();
+        for (Criteria criterion : criteria) {
+            if (criterion != null) {
+                present.add(criterion);
+            }
+        }
+        if (present.isEmpty()) {
+            return null;
+        }
+        return Aggregation.match(present.size() == 1 ? present.get(0) : new Criteria().andOperator(present));
+    }
+
+    private static AggregationOperation[] stages(AggregationOperation... stages) {
+        List<AggregationOperation> present = new ArrayList<>();
+        for (AggregationOperation stage : stages) {
+            if (stage != null) {
+                present.add(stage);
+            }
+        }
+        return present.toArray(new AggregationOperation[0]);
+    }
+
+    // Stages that refer to fields added by earlier raw stages bypass Spring's field validation
+    private static AggregationOperation raw(String operator, Document body) {
+        return context -> new Document(operator, body);
+    }
+
+    private Object[] boxedBoundaries() {
+        Object[] boundaries = new Object[priceBoundaries.length];
+        for (int i = 0; i < priceBoundaries.length; i++) {
+            boundaries[i] = priceBoundaries[i];
+        }
+        return boundaries;
+    }
+}
@@ -0,0 +1,466 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.service.CatalogVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over product name, category and description, ranked with BM25.
+ *
+ * <p>Built once from a Mongo cursor when the application is ready and kept current by
+ * {@link com.ecommerce.service.ProductService} on every product write. Updated and deleted
+ * documents are tombstoned and the postings are compacted once tombstones make up a quarter of
+ * the index. Every query term must match; the last term also matches as a prefix so partial words
+ * typed into the search box still find products. Until the first build completes,
+ * {@link #isReady()} is false and callers should fall back to the database.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Field boosts applied as repeated term frequency (BM25F-style)
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_TOMBSTONES_FOR_COMPACTION = 1024;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private TreeMap<String, Postings> dictionary = new TreeMap<>();
+    private Map<String, Integer> docIdsByProductId = new HashMap<>();
+    private String[] productIds = new String[1024];
+    private int[] docLengths = new int[1024];
+    private BitSet tombstones = new BitSet();
+    private int docCount;
+    private int liveDocs;
+    private long totalLength;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Query query = new Query();
+        query.fields().include("name", "category", "description");
+
+        lock.writeLock().lock();
+        try {
+            clear();
+            try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+                products.forEach(this::add);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Search results switch from the database fallback to ranked results
+        catalogVersion.bump();
+        logger.info("Product search index built: {} products, {} terms in {} ms",
+                liveDocs, dictionary.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of matching products, best match first, for the requested page.
+     */
+    public Page<String> search(String text, Pageable pageable) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.tokenize(text)));
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        lock.readLock().lock();
+        try {
+            TermMatches[] perTerm = new TermMatches[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                boolean prefix = i == terms.size() - 1 && terms.get(i).length() >= MIN_PREFIX_LENGTH;
+                perTerm[i] = scoreTerm(terms.get(i), prefix);
+                if (perTerm[i].size == 0) {
+                    return Page.empty(pageable);
+                }
+            }
+
+            // Drive the intersection from the most selective term; the lists are sorted by doc id
+            Arrays.sort(perTerm, (a, b) -> Integer.compare(a.size, b.size));
+            TermMatches driver = perTerm[0];
+            int[] cursors = new int[perTerm.length];
+            int[] matchDocs = new int[driver.size];
+            double[] matchScores = new double[driver.size];
+            int matchCount = 0;
+            candidates:
+            for (int i = 0; i < driver.size; i++) {
+                int doc = driver.docs[i];
+                double score = driver.scores[i];
+                for (int t = 1; t < perTerm.length; t++) {
+                    TermMatches other = perTerm[t];
+                    int position = Arrays.binarySearch(other.docs, cursors[t], other.size, doc);
+                    if (position < 0) {
+                        cursors[t] = -position - 1;
+                        continue candidates;
+                    }
+                    cursors[t] = position;
+                    score += other.scores[position];
+                }
+                matchDocs[matchCount] = doc;
+                matchScores[matchCount] = score;
+                matchCount++;
+            }
+
+            int from = (int) Math.min(pageable.getOffset(), matchCount);
+            int to = Math.min(from + pageable.getPageSize(), matchCount);
+            int[] top = topK(matchDocs, matchScores, matchCount, to);
+            List<String> ids = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                ids.add(productIds[top[i]]);
+            }
+            return new PageImpl<>(ids, pageable, matchCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the doc ids of the best {@code k} matches, best first, using a bounded min-heap.
+     */
+    private static int[] topK(int[] docs, double[] scores, int count, int k) {
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int i = 0; i < count && k > 0; i++) {
+            if (heapSize < k) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++, docs, scores);
+            } else if (better(i, heap[0], docs, scores)) {
+                heap[0] = i;
+                siftDown(heap, heapSize, docs, scores);
+            }
+        }
+
+        int[] ranked = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ranked[i] = docs[heap[0]];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, docs, scores);
+        }
+        return ranked;
+    }
+
+    // Higher score wins; ties go to the older document for a stable order
+    private static boolean better(int a, int b, int[] docs, double[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && docs[a] < docs[b]);
+    }
+
+    private static void siftUp(int[] heap, int index, int[] docs, double[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], heap[index], docs, scores)) {
+                break;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int[] docs, double[] scores) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && better(heap[worst], heap[left], docs, scores)) {
+                worst = left;
+            }
+            if (right < size && better(heap[worst], heap[right], docs, scores)) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", ready);
+            stats.put("documents", liveDocs);
+            stats.put("tombstones", tombstones.cardinality());
+            stats.put("terms", dictionary.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private TermMatches scoreTerm(String term, boolean prefix) {
+        Collection<Postings> expansions;
+        if (prefix) {
+            expansions = dictionary.subMap(term, true, term + Character.MAX_VALUE, false).values();
+        } else {
+            Postings postings = dictionary.get(term);
+            expansions = postings == null ? List.of() : List.of(postings);
+        }
+
+        int capacity = 0;
+        for (Postings postings : expansions) {
+            capacity += postings.size;
+        }
+        int[] docs = new int[capacity];
+        double[] scores = new double[capacity];
+        int size = 0;
+
+        double avgLength = liveDocs == 0 ? 1.0 : (double) totalLength / liveDocs;
+        for (Postings postings : expansions) {
+            double idf = Math.log(1 + (liveDocs - postings.size + 0.5) / (postings.size + 0.5));
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (tombstones.get(doc)) {
+                    continue;
+                }
+                double tf = postings.freqs[i];
+                double norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                docs[size] = doc;
+                scores[size] = idf * tf * (K1 + 1) / (tf + norm);
+                size++;
+            }
+        }
+
+        TermMatches matches = new TermMatches(docs, scores, size);
+        if (expansions.size() > 1) {
+            matches.sortAndMerge();
+        }
+        return matches;
+    }
+
+    private void add(Product product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTokens(frequencies, product.getName(), NAME_WEIGHT);
+        addTokens(frequencies, product.getCategory(), CATEGORY_WEIGHT);
+        addTokens(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        int doc = docCount++;
+        if (doc == productIds.length) {
+            productIds = Arrays.copyOf(productIds, doc * 2);
+            docLengths = Arrays.copyOf(docLengths, doc * 2);
+        }
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            dictionary.computeIfAbsent(entry.getKey(), key -> new Postings()).add(doc, entry.getValue());
+            length += entry.getValue();
+        }
+
+        productIds[doc] = product.getId();
+        docLengths[doc] = length;
+        docIdsByProductId.put(product.getId(), doc);
+        liveDocs++;
+        totalLength += length;
+    }
+
+    private static void addTokens(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : TextNormalizer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void removeInternal(String productId) {
+        Integer doc = docIdsByProductId.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        tombstones.set(doc);
+        liveDocs--;
+        totalLength -= docLengths[doc];
+
+        int tombstoneCount = tombstones.cardinality();
+        if (tombstoneCount >= MIN_TOMBSTONES_FOR_COMPACTION && tombstoneCount * 4 >= docCount) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int[] remap = new int[docCount];
+        String[] newProductIds = new String[Math.max(1024, liveDocs * 2)];
+        int[] newDocLengths = new int[newProductIds.length];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (tombstones.get(doc)) {
+                remap[doc] = -1;
+            } else {
+                remap[doc] = next;
+                newProductIds[next] = productIds[doc];
+                newDocLengths[next] = docLengths[doc];
+                docIdsByProductId.put(productIds[doc], next);
+                next++;
+            }
+        }
+
+        Iterator<Postings> iterator = dictionary.values().iterator();
+        while (iterator.hasNext()) {
+            Postings postings = iterator.next();
+            postings.remap(remap);
+            if (postings.size == 0) {
+                iterator.remove();
+            }
+        }
+
+        productIds = newProductIds;
+        docLengths = newDocLengths;
+        docCount = next;
+        tombstones = new BitSet();
+    }
+
+    private void clear() {
+        dictionary = new TreeMap<>();
+        docIdsByProductId = new HashMap<>();
+        productIds = new String[1024];
+        docLengths = new int[1024];
+        tombstones = new BitSet();
+        docCount = 0;
+        liveDocs = 0;
+        totalLength = 0;
+    }
+
+    /**
+     * Scored documents for one query term, sorted by doc id once {@link #sortAndMerge()} has run.
+     */
+    private static final class TermMatches {
+
+        private int[] docs;
+        private double[] scores;
+        private int size;
+
+        private TermMatches(int[] docs, double[] scores, int size) {
+            this.docs = docs;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        // Prefix expansions concatenate several sorted lists; sort by doc and sum repeated docs
+        private void sortAndMerge() {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = ((long) docs[i] << 32) | i;
+            }
+            Arrays.sort(keys);
+
+            int[] mergedDocs = new int[size];
+            double[] mergedScores = new double[size];
+            int merged = 0;
+            for (long key : keys) {
+                int doc = (int) (key >>> 32);
+                double score = scores[(int) key];
+                if (merged > 0 && mergedDocs[merged - 1] == doc) {
+                    mergedScores[merged - 1] += score;
+                } else {
+                    mergedDocs[merged] = doc;
+                    mergedScores[merged] = score;
+                    merged++;
+                }
+            }
+            docs = mergedDocs;
+            scores = mergedScores;
+            size = merged;
+        }
+    }
+
+    /**
+     * Parallel growable arrays of document ids and term frequencies, in ascending id order.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        private void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        private void remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    freqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
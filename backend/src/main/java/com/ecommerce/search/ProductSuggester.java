@@ -0,0 +1,584 @@
+package com.ecommerce.search;
+
+import com.ecommerce.dto.Suggestion;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.Product;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Prefix autocomplete over product names and categories, backed by a radix trie.
+ *
+ * <p>Every product name is indexed under its normalized form and under each suffix that starts at
+ * a later word, so "mou" finds "Wireless Mouse". Each category is indexed once. Suggestions are
+ * ranked by units sold: a product's own sales, or the total sales of a category's products. Every
+ * trie node keeps the best {@code catalog.suggest.max-results} entries of its subtree, so a lookup
+ * walks the prefix and copies one short list. It never enumerates the subtree.
+ *
+ * <p>Built from a Mongo cursor and one sales aggregation when the application is ready. After that,
+ * {@link com.ecommerce.service.ProductService} keeps it current on product writes and on order
+ * stock decrements.
+ */
+@Component
+public class ProductSuggester {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggester.class);
+
+    // Word suffixes indexed per product name; later words rarely start a query
+    private static final int MAX_NAME_SUFFIXES = 4;
+
+    private static final int[] NO_ENTRIES = new int[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${catalog.suggest.max-results:10}")
+    private int maxResults;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node(new char[0]);
+    private Entry[] entries = new Entry[1024];
+    private int[] freeEntries = new int[16];
+    private int freeCount;
+    private int entryCount;
+    private Map<String, Integer> productEntries = new HashMap<>();
+    private Map<String, Integer> categoryEntries = new HashMap<>();
+    private Map<String, Long> salesByProduct = new HashMap<>();
+    private int nodeCount = 1;
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        maxResults = Math.max(1, maxResults);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<String, Long> sales = loadSales();
+        Query query = new Query();
+        query.fields().include("name", "category");
+
+        lock.writeLock().lock();
+        try {
+            clear();
+            salesByProduct = sales;
+            try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+                products.forEach(this::addProduct);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product suggester built: {} entries, {} trie nodes in {} ms",
+                productEntries.size() + categoryEntries.size(), nodeCount, System.currentTimeMillis() - start);
+    }
+
+    // Units sold per product over all orders that were not cancelled
+    private Map<String, Long> loadSales() {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("status", new Document("$ne", OrderStatus.CANCELLED.name()))),
+                new Document("$unwind", "$items"),
+                new Document("$group", new Document("_id", "$items.productId")
+                        .append("units", new Document("$sum", "$items.quantity"))));
+        Map<String, Long> sales = new HashMap<>();
+        for (Document group : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                .aggregate(pipeline).allowDiskUse(true)) {
+            String productId = group.getString("_id");
+            Number units = group.get("units", Number.class);
+            if (productId != null && units != null) {
+                sales.put(productId, units.longValue());
+            }
+        }
+        return sales;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(product.getId());
+            addProduct(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(productId);
+            salesByProduct.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void recordSale(String productId, int units) {
+        lock.writeLock().lock();
+        try {
+            salesByProduct.merge(productId, (long) units, Long::sum);
+            Integer product = productEntries.get(productId);
+            if (product == null) {
+                return;
+            }
+            Entry entry = entries[product];
+            entry.popularity += units;
+            rerank(product);
+            Integer category = entry.category == null ? null : categoryEntries.get(entry.category);
+            if (category != null) {
+                entries[category].popularity += units;
+                rerank(category);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} suggestions whose normalized text starts with the normalized
+     * prefix, most popular first.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        char[] key = String.join(" ", TextNormalizer.tokenize(prefix)).toCharArray();
+        if (key.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length) {
+                Node child = node.child(key[i]);
+                if (child == null) {
+                    return List.of();
+                }
+                int matched = 0;
+                while (matched < child.label.length && i < key.length) {
+                    if (child.label[matched] != key[i]) {
+                        return List.of();
+                    }
+                    matched++;
+                    i++;
+                }
+                node = child;
+            }
+
+            int count = Math.min(limit, node.top.length);
+            List<Suggestion> suggestions = new ArrayList<>(count);
+            for (int n = 0; n < count; n++) {
+                Entry entry = entries[node.top[n]];
+                suggestions.add(new Suggestion(entry.text, entry.type, entry.productId));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", ready);
+            stats.put("products", productEntries.size());
+            stats.put("categories", categoryEntries.size());
+            stats.put("nodes", nodeCount);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addProduct(Product product) {
+        if (product.getName() == null) {
+            return;
+        }
+        long sales = salesByProduct.getOrDefault(product.getId(), 0L);
+        List<String> tokens = TextNormalizer.tokenize(product.getName());
+        if (tokens.isEmpty()) {
+            return;
+        }
+        String[] keys = new String[Math.min(tokens.size(), MAX_NAME_SUFFIXES)];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = String.join(" ", tokens.subList(i, tokens.size()));
+        }
+        int productEntry = newEntry(new Entry(product.getName(), Suggestion.Type.PRODUCT, product.getId(),
+                product.getCategory(), keys, sales));
+        productEntries.put(product.getId(), productEntry);
+        insertKeys(productEntry);
+
+        if (product.getCategory() == null) {
+            return;
+        }
+        Integer category = categoryEntries.get(product.getCategory());
+        if (category == null) {
+            String categoryKey = String.join(" ", TextNormalizer.tokenize(product.getCategory()));
+            if (categoryKey.isEmpty()) {
+                return;
+            }
+            category = newEntry(new Entry(product.getCategory(), Suggestion.Type.CATEGORY, null,
+                    null, new String[]{categoryKey}, sales));
+            entries[category].products = 1;
+            categoryEntries.put(product.getCategory(), category);
+            insertKeys(category);
+        } else {
+            Entry entry = entries[category];
+            entry.products++;
+            if (sales > 0) {
+                entry.popularity += sales;
+                rerank(category);
+            }
+        }
+    }
+
+    private void removeProduct(String productId) {
+        Integer product = productEntries.remove(productId);
+        if (product == null) {
+            return;
+        }
+        Entry entry = entries[product];
+        removeKeys(product);
+        releaseEntry(product);
+
+        Integer category = entry.category == null ? null : categoryEntries.get(entry.category);
+        if (category == null) {
+            return;
+        }
+        Entry categoryEntry = entries[category];
+        if (--categoryEntry.products == 0) {
+            categoryEntries.remove(entry.category);
+            removeKeys(category);
+            releaseEntry(category);
+        } else if (entry.popularity > 0) {
+            categoryEntry.popularity -= entry.popularity;
+            rerank(category);
+        }
+    }
+
+    private int newEntry(Entry entry) {
+        int id;
+        if (freeCount > 0) {
+            id = freeEntries[--freeCount];
+        } else {
+            id = entryCount++;
+            if (id == entries.length) {
+                entries = Arrays.copyOf(entries, id * 2);
+            }
+        }
+        entries[id] = entry;
+        return id;
+    }
+
+    private void releaseEntry(int id) {
+        entries[id] = null;
+        if (freeCount == freeEntries.length) {
+            freeEntries = Arrays.copyOf(freeEntries, freeCount * 2);
+        }
+        freeEntries[freeCount++] = id;
+    }
+
+    private void insertKeys(int id) {
+        for (String key : entries[id].keys) {
+            List<Node> path = insert(key.toCharArray(), id);
+            updateTops(path);
+        }
+    }
+
+    private void removeKeys(int id) {
+        for (String key : entries[id].keys) {
+            List<Node> path = pathTo(key.toCharArray());
+            if (path == null) {
+                continue;
+            }
+            Node node = path.get(path.size() - 1);
+            node.terminals = without(node.terminals, id);
+            prune(path);
+            updateTops(path);
+        }
+    }
+
+    // Re-sorts the entry in the top lists along each of its keys after a popularity change
+    private void rerank(int id) {
+        for (String key : entries[id].keys) {
+            List<Node> path = pathTo(key.toCharArray());
+            if (path != null) {
+                updateTops(path);
+            }
+        }
+    }
+
+    /**
+     * Adds the entry at the key, splitting an edge where the key leaves it, and returns the nodes
+     * from the root down to the key's node.
+     */
+    private List<Node> insert(char[] key, int id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length) {
+            Node child = node.child(key[i]);
+            if (child == null) {
+                Node leaf = new Node(Arrays.copyOfRange(key, i, key.length));
+                node.addChild(leaf);
+                nodeCount++;
+                node = leaf;
+                path.add(node);
+                i = key.length;
+                break;
+            }
+            int common = 0;
+            while (common < child.label.length && i + common < key.length && child.label[common] == key[i + common]) {
+                common++;
+            }
+            if (common < child.label.length) {
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                node.replaceChild(child, middle);
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.children = new Node[]{child};
+                middle.top = child.top;
+                nodeCount++;
+                child = middle;
+            }
+            i += common;
+            node = child;
+            path.add(node);
+        }
+        node.terminals = with(node.terminals, id);
+        return path;
+    }
+
+    private List<Node> pathTo(char[] key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length) {
+            Node child = node.child(key[i]);
+            if (child == null || key.length - i < child.label.length
+                    || !Arrays.equals(child.label, 0, child.label.length, key, i, i + child.label.length)) {
+                return null;
+            }
+            i += child.label.length;
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    // Drops nodes left empty and merges single-child nodes back into their child, bottom up
+    private void prune(List<Node> path) {
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node node = path.get(depth);
+            if (node.terminals.length > 0) {
+                return;
+            }
+            Node parent = path.get(depth - 1);
+            if (node.children.length == 0) {
+                parent.removeChild(node);
+                nodeCount--;
+                path.remove(depth);
+            } else if (node.children.length == 1) {
+                Node child = node.children[0];
+                char[] label = Arrays.copyOf(node.label, node.label.length + child.label.length);
+                System.arraycopy(child.label, 0, label, node.label.length, child.label.length);
+                child.label = label;
+                parent.replaceChild(node, child);
+                nodeCount--;
+                path.set(depth, child);
+                return;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void updateTops(List<Node> path) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node node = path.get(depth);
+            node.top = best(node);
+        }
+    }
+
+    // Merges the node's own entries with its children's top lists, keeping the best maxResults
+    private int[] best(Node node) {
+        int[] top = new int[maxResults];
+        int size = 0;
+        for (int id : node.terminals) {
+            size = offer(top, size, id);
+        }
+        for (Node child : node.children) {
+            for (int id : child.top) {
+                size = offer(top, size, id);
+            }
+        }
+        return size == top.length ? top : Arrays.copyOf(top, size);
+    }
+
+    private int offer(int[] top, int size, int id) {
+        for (int i = 0; i < size; i++) {
+            if (top[i] == id) {
+                return size;
+            }
+        }
+        Entry entry = entries[id];
+        int position = size;
+        while (position > 0 && ranksBefore(entry, entries[top[position - 1]])) {
+            position--;
+        }
+        if (position >= top.length) {
+            return size;
+        }
+        int moved = Math.min(size, top.length - 1) - position;
+        System.arraycopy(top, position, top, position + 1, moved);
+        top[position] = id;
+        return Math.min(size + 1, top.length);
+    }
+
+    // More units sold first, then alphabetically for a stable order
+    private static boolean ranksBefore(Entry a, Entry b) {
+        if (a.popularity != b.popularity) {
+            return a.popularity > b.popularity;
+        }
+        return a.text.compareTo(b.text) < 0;
+    }
+
+    private static int[] with(int[] ids, int id) {
+        int[] result = Arrays.copyOf(ids, ids.length + 1);
+        result[ids.length] = id;
+        return result;
+    }
+
+    private static int[] without(int[] ids, int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                int[] result = new int[ids.length - 1];
+                System.arraycopy(ids, 0, result, 0, i);
+                System.arraycopy(ids, i + 1, result, i, ids.length - i - 1);
+                return result;
+            }
+        }
+        return ids;
+    }
+
+    private void clear() {
+        root = new Node(new char[0]);
+        entries = new Entry[1024];
+        freeEntries = new int[16];
+        freeCount = 0;
+        entryCount = 0;
+        productEntries = new HashMap<>();
+        categoryEntries = new HashMap<>();
+        nodeCount = 1;
+    }
+
+    private static final class Entry {
+
+        private final String text;
+        private final Suggestion.Type type;
+        private final String productId;
+        // Category of a product entry, used to find the category entry
+        private final String category;
+        private final String[] keys;
+        private long popularity;
+        // Number of products in a category entry
+        private int products;
+
+        private Entry(String text, Suggestion.Type type, String productId, String category, String[] keys,
+                      long popularity) {
+            this.text = text;
+            this.type = type;
+            this.productId = productId;
+            this.category = category;
+            this.keys = keys;
+            this.popularity = popularity;
+        }
+    }
+
+    /**
+     * A trie node: the edge label from its parent, children sorted by their first character, the
+     * entries whose key ends here and the best entries of the whole subtree.
+     */
+    private static final class Node {
+
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private int[] terminals = NO_ENTRIES;
+        private int[] top = NO_ENTRIES;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+
+        private Node child(char first) {
+            int index = indexOf(first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label[0];
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void addChild(Node child) {
+            int position = -indexOf(child.label[0]) - 1;
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, position);
+            grown[position] = child;
+            System.arraycopy(children, position, grown, position + 1, children.length - position);
+            children = grown;
+        }
+
+        private void replaceChild(Node old, Node replacement) {
+            children[indexOf(old.label[0])] = replacement;
+        }
+
+        private void removeChild(Node child) {
+            int position = indexOf(child.label[0]);
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, position);
+            System.arraycopy(children, position + 1, shrunk, position, children.length - position - 1);
+            children = shrunk;
+        }
+    }
+}
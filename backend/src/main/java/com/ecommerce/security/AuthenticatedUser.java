@@ -0,0 +1,30 @@
+package com.ecommerce.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.Principal;
+
+/**
+ * Principal placed in the security context by {@link JwtAuthenticationFilter}. The user id comes
+ * from the token's {@code uid} claim, so handlers can scope data to the caller without a users
+ * collection lookup. The id is {@code null} for tokens issued before the claim existed.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal {
+
+    private final String id;
+    private final String email;
+    private final boolean admin;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
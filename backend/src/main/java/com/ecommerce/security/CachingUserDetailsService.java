@@ -0,0 +1,71 @@
+package com.ecommerce.security;
+
+import com.ecommerce.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Size- and TTL-bounded cache in front of {@link CustomUserDetailsService}, used by the JWT filter
+ * so that authenticated requests do not read the users collection every time. Login still goes
+ * through the uncached service. Callers that change a user's password or role must call
+ * {@link #evict(String)}.
+ *
+ * <p>Also stores rehashed passwords when login upgrades a hash to the configured BCrypt cost.
+ */
+@Service
+@Primary
+public class CachingUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    @Autowired
+    private CustomUserDetailsService delegate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${security.user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${security.user-cache.ttl:PT5M}")
+    private Duration ttl;
+
+    private Cache<String, UserDetails> cache;
+
+    @PostConstruct
+    void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        return cache.get(email, delegate::loadUserByUsername);
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.findByEmail(user.getUsername()).ifPresent(stored -> {
+            stored.setPassword(newPassword);
+            userRepository.save(stored);
+        });
+        evict(user.getUsername());
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    public void evict(String email) {
+        cache.invalidate(email);
+    }
+}
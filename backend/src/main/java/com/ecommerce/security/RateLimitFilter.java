@@ -0,0 +1,234 @@
+package com.ecommerce.security;
+
+import com.ecommerce.dto.ApiResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the credential endpoints. Login and forgot-password requests are
+ * throttled per client IP and per submitted email. Each endpoint and key type has its own token
+ * bucket store. Throttled requests get 429 with Retry-After, before any hashing, database or
+ * mail work happens. The body is buffered to find the email whatever its transfer encoding, and a
+ * body over 16 KB gets 413.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/api/auth/login";
+    private static final String FORGOT_PASSWORD_PATH = "/api/auth/forgot-password";
+
+    // Credential payloads are tiny; anything larger is rejected before it is buffered
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${security.rate-limit.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${security.rate-limit.login.ip.capacity:20}")
+    private double loginIpCapacity;
+
+    @Value("${security.rate-limit.login.ip.refill-per-minute:20}")
+    private double loginIpRefill;
+
+    @Value("${security.rate-limit.login.email.capacity:10}")
+    private double loginEmailCapacity;
+
+    @Value("${security.rate-limit.login.email.refill-per-minute:5}")
+    private double loginEmailRefill;
+
+    @Value("${security.rate-limit.forgot-password.ip.capacity:5}")
+    private double forgotIpCapacity;
+
+    @Value("${security.rate-limit.forgot-password.ip.refill-per-minute:2}")
+    private double forgotIpRefill;
+
+    @Value("${security.rate-limit.forgot-password.email.capacity:3}")
+    private double forgotEmailCapacity;
+
+    @Value("${security.rate-limit.forgot-password.email.refill-per-minute:0.2}")
+    private double forgotEmailRefill;
+
+    private TokenBucketStore loginByIp;
+    private TokenBucketStore loginByEmail;
+    private TokenBucketStore forgotByIp;
+    private TokenBucketStore forgotByEmail;
+
+    @PostConstruct
+    void init() {
+        loginByIp = new TokenBucketStore(loginIpCapacity, loginIpRefill, maxKeys);
+        loginByEmail = new TokenBucketStore(loginEmailCapacity, loginEmailRefill, maxKeys);
+        forgotByIp = new TokenBucketStore(forgotIpCapacity, forgotIpRefill, maxKeys);
+        forgotByEmail = new TokenBucketStore(forgotEmailCapacity, forgotEmailRefill, maxKeys);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getServletPath();
+        return !LOGIN_PATH.equals(path) && !FORGOT_PASSWORD_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        boolean login = LOGIN_PATH.equals(request.getServletPath());
+        TokenBucketStore byIp = login ? loginByIp : forgotByIp;
+        TokenBucketStore byEmail = login ? loginByEmail : forgotByEmail;
+
+        long waitNanos = byIp.tryAcquire(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            reject(response, waitNanos);
+            return;
+        }
+
+        // The declared length is only a hint: a chunked body has none, so the stream itself is
+        // read up to the limit
+        byte[] body = request.getContentLengthLong() > MAX_BODY_BYTES
+                ? null
+                : request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body == null || body.length > MAX_BODY_BYTES) {
+            tooLarge(response);
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        String email = extractEmail(body);
+        if (email != null) {
+            waitNanos = byEmail.tryAcquire(email);
+            if (waitNanos > 0) {
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(cachedRequest, response);
+    }
+
+    private String extractEmail(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            // Malformed JSON is left for the controller to reject
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Too many requests, please retry in " + retryAfterSeconds + " seconds"));
+    }
+
+    private void tooLarge(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Request body exceeds " + MAX_BODY_BYTES + " bytes"));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loginBuckets", loginByIp.size() + loginByEmail.size());
+        stats.put("loginRejected", loginByIp.getRejected() + loginByEmail.getRejected());
+        stats.put("forgotPasswordBuckets", forgotByIp.size() + forgotByEmail.size());
+        stats.put("forgotPasswordRejected", forgotByIp.getRejected() + forgotByEmail.getRejected());
+        return stats;
+    }
+
+    /**
+     * Replays the buffered request body so it can be inspected here and still be read by the
+     * controller.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available as soon as a listener asks
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
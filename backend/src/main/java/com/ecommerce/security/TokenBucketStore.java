@@ -0,0 +1,85 @@
+package com.ecommerce.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory token buckets keyed by string (client IP, email, ...). Each bucket is a mutable pair
+ * of fields updated in place under its own lock, so unrelated keys never contend and a request
+ * for a known key allocates nothing.
+ *
+ * <p>Buckets live in a Caffeine cache bounded to {@code maxKeys}. A bucket idle long enough to
+ * refill completely carries no state, so it expires after that much time without access. A flood
+ * of distinct keys therefore cannot grow the store past its bound; under that pressure the least
+ * recently used buckets are evicted and start over full.
+ */
+public class TokenBucketStore {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final Ticker ticker;
+    private final Cache<String, Bucket> buckets;
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenBucketStore(double capacity, double refillPerMinute, long maxKeys) {
+        this(capacity, refillPerMinute, maxKeys, Ticker.systemTicker());
+    }
+
+    TokenBucketStore(double capacity, double refillPerMinute, long maxKeys, Ticker ticker) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.ticker = ticker;
+        long idleNanos = (long) Math.ceil(capacity / tokensPerNano);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(Math.max(1, idleNanos)))
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return {@code 0} if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = ticker.read();
+        Bucket bucket = buckets.get(key, k -> new Bucket(capacity, now));
+
+        synchronized (bucket) {
+            bucket.tokens = Math.min(capacity, bucket.tokens + Math.max(0, now - bucket.updatedAt) * tokensPerNano);
+            bucket.updatedAt = Math.max(bucket.updatedAt, now);
+
+            if (bucket.tokens >= 1.0) {
+                bucket.tokens -= 1.0;
+                return 0;
+            }
+            rejected.increment();
+            return (long) Math.ceil((1.0 - bucket.tokens) / tokensPerNano);
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
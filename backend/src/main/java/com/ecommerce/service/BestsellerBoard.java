@@ -0,0 +1,444 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.OrderStatus;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Best-selling products by units sold over sliding windows, overall and per category.
+ *
+ * <p>Each window is a ring of {@code buckets} time slices. Every slice holds a space-saving
+ * summary of bounded capacity for all products, plus one per tracked category. The first
+ * {@code max-categories} categories seen are tracked. Memory is therefore bounded by the
+ * configuration, whatever the size of the catalog: windows times slices times {@code capacity}
+ * plus {@code max-categories} times {@code category-capacity} counters. A category past the cap
+ * is ranked from the overall summary, so it only lists products that sell well overall.
+ *
+ * <p>A product selling more than {@code 1 / capacity} of a slice's units is always counted, and
+ * its count is overestimated by at most the smallest counter. A window covers its duration to
+ * within one slice. A cancelled order's units are subtracted from the slice it was counted in,
+ * if that slice is still live and still counts the product.
+ *
+ * <p>Orders are recorded under a lock that only writers take. Every {@code refresh-interval} the
+ * slices are merged into immutable leaderboards and published through a volatile field, so
+ * readers never lock. At startup the windows are seeded from the orders of the longest window.
+ */
+@Component
+public class BestsellerBoard {
+
+    private static final Logger logger = LoggerFactory.getLogger(BestsellerBoard.class);
+
+    // Leaderboard key for all categories together
+    private static final String ALL = "";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${recommendations.bestsellers.windows:1h,24h,7d}")
+    private String[] windowNames;
+
+    @Value("${recommendations.bestsellers.buckets:12}")
+    private int bucketsPerWindow;
+
+    @Value("${recommendations.bestsellers.capacity:200}")
+    private int capacity;
+
+    @Value("${recommendations.bestsellers.category-capacity:50}")
+    private int categoryCapacity;
+
+    @Value("${recommendations.bestsellers.max-categories:100}")
+    private int maxCategories;
+
+    @Value("${recommendations.bestsellers.top-n:50}")
+    private int topN;
+
+    private final Map<String, Window> windows = new LinkedHashMap<>();
+    // Categories with summaries of their own, admitted first come first served up to the cap
+    private final Set<String> categories = new HashSet<>();
+
+    // window name -> category (ALL for overall) -> leaderboard
+    private volatile Map<String, Map<String, List<Ranked>>> leaderboards = Map.of();
+    // Bumped whenever refresh() publishes different leaderboards; starts at boot time so a restart
+    // never reissues an ETag
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    @PostConstruct
+    void init() {
+        for (String name : windowNames) {
+            String trimmed = name.trim();
+            windows.put(trimmed, new Window(DurationStyle.detectAndParse(trimmed), Math.max(1, bucketsPerWindow)));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long start = System.currentTimeMillis();
+        Duration longest = windows.values().stream().map(window -> window.length).max(Duration::compareTo)
+                .orElse(Duration.ZERO);
+        Date since = new Date(start - longest.toMillis());
+        long orders = 0;
+        for (Document order : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                .find(Filters.and(Filters.gte("createdAt", since),
+                        Filters.ne("status", OrderStatus.CANCELLED.name())))
+                .projection(Projections.include("createdAt", "items.productId", "items.category", "items.quantity"))) {
+            long time = order.getDate("createdAt").getTime();
+            for (Document item : order.getList("items", Document.class, List.of())) {
+                Number quantity = item.get("quantity", Number.class);
+                record(time, item.getString("productId"), item.getString("category"),
+                        quantity == null ? 1 : quantity.intValue());
+            }
+            orders++;
+        }
+        refresh();
+        logger.info("Best-seller windows seeded from {} orders in {} ms", orders, System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        Order order = event.order();
+        long time = order.getCreatedAt() == null
+                ? System.currentTimeMillis()
+                : order.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        for (OrderItem item : order.getItems()) {
+            record(time, item.getProductId(), item.getCategory(), item.getQuantity());
+        }
+    }
+
+    /**
+     * Takes a cancelled order's units back out of the live slices, and counts them again if the
+     * cancellation is undone.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean cancelled = event.order().getStatus() == OrderStatus.CANCELLED;
+        if (cancelled == (event.previousStatus() == OrderStatus.CANCELLED)) {
+            return;
+        }
+        Order order = event.order();
+        long time = order.getCreatedAt() == null
+                ? System.currentTimeMillis()
+                : order.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        for (OrderItem item : order.getItems()) {
+            record(time, item.getProductId(), item.getCategory(), cancelled ? -item.getQuantity() : item.getQuantity());
+        }
+    }
+
+    // Negative units only adjust counters that already exist
+    private synchronized void record(long time, String productId, String category, int units) {
+        if (productId == null || units == 0) {
+            return;
+        }
+        boolean tracked = category != null && (categories.contains(category)
+                || (units > 0 && categories.size() < maxCategories && categories.add(category)));
+        for (Window window : windows.values()) {
+            window.record(time, productId, category, tracked, units);
+        }
+    }
+
+    /**
+     * Forgets a deleted product in every slice and republishes the leaderboards, so it stops
+     * showing up without waiting for its slices to age out.
+     */
+    public void remove(String productId) {
+        synchronized (this) {
+            for (Window window : windows.values()) {
+                window.remove(productId);
+            }
+        }
+        refresh();
+    }
+
+    /**
+     * Merges the live slices of every window into new leaderboards and publishes them.
+     */
+    @Scheduled(fixedDelayString = "${recommendations.bestsellers.refresh-interval:PT10S}",
+            initialDelayString = "${recommendations.bestsellers.refresh-interval:PT10S}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        Map<String, Map<String, List<Ranked>>> published = new HashMap<>();
+        synchronized (this) {
+            windows.forEach((name, window) -> published.put(name, window.leaderboards(now, topN)));
+        }
+        if (!published.equals(leaderboards)) {
+            leaderboards = published;
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Changes every time {@link #refresh()} publishes leaderboards that differ from the previous
+     * ones, so it can be part of an ETag.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public boolean hasWindow(String window) {
+        return windows.containsKey(window);
+    }
+
+    public List<String> getWindows() {
+        return new ArrayList<>(windows.keySet());
+    }
+
+    /**
+     * Returns up to {@code limit} best sellers of the window, for one category or for all when
+     * {@code category} is null. Reads the last published leaderboards without locking.
+     */
+    public List<Ranked> top(String window, String category, int limit) {
+        Map<String, List<Ranked>> byCategory = leaderboards.get(window);
+        if (byCategory == null || limit <= 0) {
+            return List.of();
+        }
+        List<Ranked> leaderboard = byCategory.getOrDefault(category == null ? ALL : category, List.of());
+        return leaderboard.subList(0, Math.min(limit, leaderboard.size()));
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        windows.forEach((name, window) -> stats.put(name, Map.of(
+                "bucketMillis", window.bucketMillis,
+                "categories", window.categories())));
+        stats.put("trackedCategories", categories.size());
+        stats.put("counters", windows.values().stream().mapToLong(Window::counters).sum());
+        return stats;
+    }
+
+    /**
+     * An estimated units-sold count for one product.
+     */
+    public record Ranked(String productId, long units) {
+    }
+
+    /**
+     * A ring of time slices covering one window length.
+     */
+    private final class Window {
+
+        private final Duration length;
+        private final long bucketMillis;
+        private final Slice[] ring;
+
+        private Window(Duration length, int buckets) {
+            this.length = length;
+            this.bucketMillis = Math.max(1, length.toMillis() / buckets);
+            // One extra slice so the oldest full slice stays readable while the newest fills up
+            this.ring = new Slice[buckets + 1];
+        }
+
+        private void record(long time, String productId, String category, boolean tracked, int units) {
+            long slot = time / bucketMillis;
+            long current = System.currentTimeMillis() / bucketMillis;
+            if (slot <= current - ring.length) {
+                return;
+            }
+            int index = (int) Math.floorMod(slot, (long) ring.length);
+            Slice slice = ring[index];
+            if (slice == null || slice.slot != slot) {
+                if (units < 0 || (slice != null && slice.slot > slot)) {
+                    // Nothing to subtract from, or a late event for a slot already recycled
+                    return;
+                }
+                slice = new Slice(slot);
+                ring[index] = slice;
+            }
+            slice.all.add(productId, category, units);
+            if (tracked) {
+                SpaceSaving summary = units > 0
+                        ? slice.byCategory.computeIfAbsent(category, c -> new SpaceSaving(categoryCapacity))
+                        : slice.byCategory.get(category);
+                if (summary != null) {
+                    summary.add(productId, category, units);
+                }
+            }
+        }
+
+        private void remove(String productId) {
+            for (Slice slice : ring) {
+                if (slice != null) {
+                    slice.all.remove(productId);
+                    slice.byCategory.values().forEach(summary -> summary.remove(productId));
+                }
+            }
+        }
+
+        private Map<String, List<Ranked>> leaderboards(long now, int n) {
+            long oldest = now / bucketMillis - ring.length + 1;
+            Map<String, Map<String, Long>> merged = new HashMap<>();
+            Map<String, String> categoryOf = new HashMap<>();
+            for (Slice slice : ring) {
+                if (slice == null || slice.slot < oldest) {
+                    continue;
+                }
+                slice.all.mergeInto(merged.computeIfAbsent(ALL, c -> new HashMap<>()), categoryOf);
+                slice.byCategory.forEach((category, summary) ->
+                        summary.mergeInto(merged.computeIfAbsent(category, c -> new HashMap<>()), null));
+            }
+            // Categories past the cap have no summaries of their own; rank them from the overall counts
+            merged.getOrDefault(ALL, Map.of()).forEach((productId, units) -> {
+                String category = categoryOf.get(productId);
+                if (category != null && !categories.contains(category)) {
+                    merged.computeIfAbsent(category, c -> new HashMap<>()).put(productId, units);
+                }
+            });
+            Map<String, List<Ranked>> result = new HashMap<>();
+            merged.forEach((category, counts) -> result.put(category, topOf(counts, n)));
+            return result;
+        }
+
+        private int categories() {
+            int count = 0;
+            for (Slice slice : ring) {
+                if (slice != null) {
+                    count = Math.max(count, slice.byCategory.size());
+                }
+            }
+            return count;
+        }
+
+        private long counters() {
+            long count = 0;
+            for (Slice slice : ring) {
+                if (slice != null) {
+                    count += slice.all.size;
+                    for (SpaceSaving summary : slice.byCategory.values()) {
+                        count += summary.size;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    private static List<Ranked> topOf(Map<String, Long> counts, int n) {
+        List<Ranked> ranked = new ArrayList<>(counts.size());
+        counts.forEach((productId, units) -> {
+            // Cancellations can bring a counter down to zero
+            if (units > 0) {
+                ranked.add(new Ranked(productId, units));
+            }
+        });
+        ranked.sort((a, b) -> a.units != b.units
+                ? Long.compare(b.units, a.units)
+                : a.productId.compareTo(b.productId));
+        return List.copyOf(ranked.subList(0, Math.min(n, ranked.size())));
+    }
+
+    private final class Slice {
+
+        private final long slot;
+        private final SpaceSaving all = new SpaceSaving(capacity);
+        private final Map<String, SpaceSaving> byCategory = new HashMap<>();
+
+        private Slice(long slot) {
+            this.slot = slot;
+        }
+    }
+
+    /**
+     * Space-saving heavy-hitter summary with a fixed number of counters, each remembering the
+     * category its product was last counted under.
+     */
+    private static final class SpaceSaving {
+
+        private final String[] ids;
+        private final String[] categories;
+        private final long[] counts;
+        private final Map<String, Integer> index;
+        private int size;
+
+        private SpaceSaving(int capacity) {
+            this.ids = new String[Math.max(1, capacity)];
+            this.categories = new String[ids.length];
+            this.counts = new long[ids.length];
+            this.index = new HashMap<>(ids.length * 2);
+        }
+
+        // A negative count is subtracted from an existing counter, down to zero, and otherwise ignored
+        private void add(String id, String category, long count) {
+            Integer position = index.get(id);
+            if (position != null) {
+                counts[position] = Math.max(0, counts[position] + count);
+                if (category != null) {
+                    categories[position] = category;
+                }
+                return;
+            }
+            if (count < 0) {
+                return;
+            }
+            if (size < ids.length) {
+                ids[size] = id;
+                categories[size] = category;
+                counts[size] = count;
+                index.put(id, size++);
+                return;
+            }
+            // Replace the smallest counter; the newcomer inherits its count as an upper bound
+            int min = 0;
+            for (int i = 1; i < size; i++) {
+                if (counts[i] < counts[min]) {
+                    min = i;
+                }
+            }
+            index.remove(ids[min]);
+            ids[min] = id;
+            categories[min] = category;
+            counts[min] += count;
+            index.put(id, min);
+        }
+
+        private void remove(String id) {
+            Integer position = index.remove(id);
+            if (position == null) {
+                return;
+            }
+            size--;
+            if (position != size) {
+                ids[position] = ids[size];
+                categories[position] = categories[size];
+                counts[position] = counts[size];
+                index.put(ids[position], position);
+            }
+            ids[size] = null;
+            categories[size] = null;
+            counts[size] = 0;
+        }
+
+        private void mergeInto(Map<String, Long> totals, Map<String, String> categoryOf) {
+            for (int i = 0; i < size; i++) {
+                totals.merge(ids[i], counts[i], Long::sum);
+                if (categoryOf != null && categories[i] != null) {
+                    categoryOf.put(ids[i], categories[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines one at a time from a reader, like {@link java.io.BufferedReader#readLine()}, but
+ * holds at most {@code maxLength} characters of a line in memory. The rest of a longer line is
+ * skipped and reported, so a feed without line breaks cannot exhaust the heap.
+ */
+final class BoundedLineReader {
+
+    private final Reader reader;
+    private final int maxLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private final StringBuilder current = new StringBuilder();
+    private long line;
+
+    BoundedLineReader(Reader reader, int maxLength) {
+        this.reader = reader;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @return the next line without its terminator ({@code \n}, {@code \r\n} or {@code \r}), or
+     *         {@code null} at end of input
+     * @throws LineTooLongException if the line has more than {@code maxLength} characters; it has
+     *         been skipped and reading can continue with the following line
+     * @throws IOException if the underlying reader fails
+     */
+    String next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        line++;
+        current.setLength(0);
+        long length = 0;
+        while (c != -1 && c != '\n' && c != '\r') {
+            if (++length <= maxLength) {
+                current.append((char) c);
+            }
+            c = read();
+        }
+        if (c == '\r' && peek() == '\n') {
+            read();
+        }
+        if (length > maxLength) {
+            throw new LineTooLongException(line, length, maxLength);
+        }
+        return current.toString();
+    }
+
+    /**
+     * @return the number of the line last returned or skipped by {@link #next()}, starting at 1
+     */
+    long getLine() {
+        return line;
+    }
+
+    private int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        return fill() ? buffer[position] : -1;
+    }
+
+    private boolean fill() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A line over the length limit, as opposed to a failure of the underlying reader.
+     */
+    static final class LineTooLongException extends IOException {
+
+        private final long line;
+
+        LineTooLongException(long line, long length, int maxLength) {
+            super("Line has " + length + " characters; the limit is " + maxLength);
+            this.line = line;
+        }
+
+        long getLine() {
+            return line;
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.CartOperation;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.Cart;
 import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Money;
 import com.ecommerce.model.Product;
 import com.ecommerce.repository.CartRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Optional;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class CartService {
@@ -26,76 +32,73 @@ public class CartService {
                     Cart newCart = new Cart();
                     newCart.setUserId(userId);
                     newCart.setItems(new ArrayList<>());
-                    newCart.setTotalAmount(0.0);
+                    newCart.setTotalAmount(Money.ZERO);
                     return cartRepository.save(newCart);
                 });
     }
 
     public Cart addItemToCart(String userId, String productId, Integer quantity) {
-        Cart cart = getOrCreateCart(userId);
         Product product = productService.getProductById(productId);
 
-        Optional<CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(productId))
-                .findFirst();
-
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            item.setQuantity(item.getQuantity() + quantity);
-            item.setSubtotal(item.getQuantity() * item.getPrice());
-        } else {
-            CartItem newItem = new CartItem();
-            newItem.setProductId(productId);
-            newItem.setProductName(product.getName());
-            newItem.setQuantity(quantity);
-            newItem.setPrice(product.getPrice());
-            newItem.setSubtotal(quantity * product.getPrice());
-            cart.getItems().add(newItem);
-        }
-
-        updateCartTotal(cart);
-        return cartRepository.save(cart);
+        CartItem item = new CartItem();
+        item.setProductId(productId);
+        item.setProductName(product.getName());
+        item.setQuantity(quantity);
+        item.setPrice(product.getPrice());
+        return cartRepository.addItem(userId, item);
     }
 
     public Cart updateCartItemQuantity(String userId, String productId, Integer quantity) {
-        Cart cart = getOrCreateCart(userId);
-
-        CartItem item = cart.getItems().stream()
-                .filter(i -> i.getProductId().equals(productId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Item not found in cart"));
-
-        item.setQuantity(quantity);
-        item.setSubtotal(quantity * item.getPrice());
-
-        updateCartTotal(cart);
-        return cartRepository.save(cart);
+        Cart cart = cartRepository.setItemQuantity(userId, productId, quantity);
+        if (cart == null) {
+            throw new ResourceNotFoundException("Item not found in cart");
+        }
+        return cart;
     }
 
     public Cart removeItemFromCart(String userId, String productId) {
-        Cart cart = getOrCreateCart(userId);
+        return cartRepository.removeItem(userId, productId);
+    }
+
+    /**
+     * Applies a batch of operations in order with a single write. Products added by the batch are
+     * looked up together, so a batch costs two round trips however many lines it changes.
+     */
+    public Cart updateCart(String userId, List<CartOperation> operations) {
+        Set<String> addedIds = new LinkedHashSet<>();
+        for (CartOperation operation : operations) {
+            if (operation.getType() != CartOperation.Type.REMOVE && operation.getQuantity() == null) {
+                throw new IllegalArgumentException("Quantity is required for " + operation.getType()
+                        + " of product " + operation.getProductId());
+            }
+            if (operation.getType() == CartOperation.Type.ADD) {
+                addedIds.add(operation.getProductId());
+            }
+        }
 
-        cart.getItems().removeIf(item -> item.getProductId().equals(productId));
+        Map<String, CartItem> newLines = new HashMap<>();
+        if (!addedIds.isEmpty()) {
+            productService.getProductsByIds(addedIds).forEach((id, product) -> {
+                CartItem line = new CartItem();
+                line.setProductId(id);
+                line.setProductName(product.getName());
+                line.setPrice(product.getPrice());
+                newLines.put(id, line);
+            });
+        }
 
-        updateCartTotal(cart);
-        return cartRepository.save(cart);
+        Cart cart = cartRepository.applyOperations(userId, operations, newLines);
+        if (cart == null) {
+            throw new ResourceNotFoundException("Item not found in cart");
+        }
+        return cart;
     }
 
     public void clearCart(String userId) {
-        Cart cart = getOrCreateCart(userId);
-        cart.getItems().clear();
-        cart.setTotalAmount(0.0);
-        cartRepository.save(cart);
+        cartRepository.clearItems(userId);
     }
 
     public Cart getCart(String userId) {
         return getOrCreateCart(userId);
     }
-
-    private void updateCartTotal(Cart cart) {
-        double total = cart.getItems().stream()
-                .mapToDouble(CartItem::getSubtotal)
-                .sum();
-        cart.setTotalAmount(total);
-    }
 }
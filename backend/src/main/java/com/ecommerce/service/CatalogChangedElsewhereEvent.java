@@ -0,0 +1,9 @@
+package com.ecommerce.service;
+
+/**
+ * Published by {@link CatalogVersion} when a poll finds product writes made by another instance.
+ * Which products changed is unknown, so listeners drop every cached view that could hold them.
+ * The new version is only served once the listeners have returned.
+ */
+public record CatalogChangedElsewhereEvent(long version) {
+}
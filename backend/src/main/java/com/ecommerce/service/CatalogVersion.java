@@ -0,0 +1,117 @@
+package com.ecommerce.service;
+
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Catalog-wide change counter behind the ETags of the product list endpoints. Every product write
+ * bumps it, so a list ETag can be checked without querying the products.
+ *
+ * <p>The counter is a single document shared by all instances. A write through this instance
+ * {@code $inc}s it and sees the new value at once. Bumps and polls are serialized, so the local
+ * value always equals the last shared value this instance accounted for. A bump that lands more
+ * than one past it, or a poll every {@code catalog.version.poll-interval} that finds it moved,
+ * reveals writes made by another instance. A {@link CatalogChangedElsewhereEvent} then clears the
+ * local caches before the new value is served. A write elsewhere therefore stops matching ETags
+ * and cached responses here within one poll interval. The first run stores the boot time in
+ * milliseconds, so a fresh database never reissues an ETag from an earlier one.
+ */
+@Component
+public class CatalogVersion {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersion.class);
+
+    private static final String COLLECTION = "catalog_version";
+    private static final String ID = "catalog";
+    private static final String VERSION = "version";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private volatile long version;
+
+    private final AtomicLong changesElsewhere = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        Document current = mongoTemplate.findAndModify(query(),
+                new Update().setOnInsert(VERSION, System.currentTimeMillis()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+        version = versionOf(current);
+    }
+
+    public long current() {
+        return version;
+    }
+
+    /**
+     * Bumps the shared counter. Call it after dropping this instance's cached views of the write.
+     */
+    public synchronized void bump() {
+        Document updated = mongoTemplate.findAndModify(query(), new Update().inc(VERSION, 1L),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+        long bumped = versionOf(updated);
+        if (bumped != version + 1) {
+            changedElsewhere(bumped);
+        }
+        version = bumped;
+    }
+
+    /**
+     * Reads the shared counter and, if another instance moved it, publishes a
+     * {@link CatalogChangedElsewhereEvent} before serving the new value.
+     */
+    @Scheduled(fixedDelayString = "${catalog.version.poll-interval:PT5S}",
+            initialDelayString = "${catalog.version.poll-interval:PT5S}")
+    public synchronized void poll() {
+        Document current = mongoTemplate.findOne(query(), Document.class, COLLECTION);
+        if (current == null) {
+            return;
+        }
+        long shared = versionOf(current);
+        if (shared != version) {
+            changedElsewhere(shared);
+            version = shared;
+        }
+    }
+
+    private void changedElsewhere(long shared) {
+        changesElsewhere.incrementAndGet();
+        logger.debug("Catalog changed elsewhere: version {} -> {}", version, shared);
+        eventPublisher.publishEvent(new CatalogChangedElsewhereEvent(shared));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("version", version);
+        stats.put("changesElsewhere", changesElsewhere.get());
+        return stats;
+    }
+
+    private static long versionOf(Document document) {
+        return ((Number) document.get(VERSION)).longValue();
+    }
+
+    private static Query query() {
+        return new Query(where("_id").is(ID));
+    }
+}
@@ -0,0 +1,149 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CategorySummary;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory view of the catalog's categories: product count, in-stock count and price range per
+ * category. Built from one {@code $group} aggregation when the application is ready, then kept
+ * current by {@link ProductService}, which reports each product write as the removal of the old
+ * state plus the addition of the new one. Reads never query the database.
+ *
+ * <p>Prices are held as a count per distinct price, so the minimum and maximum stay exact when
+ * the cheapest or dearest product leaves a category.
+ */
+@Component
+public class CategoryDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryDirectory.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    // Rebuilt on the first read after a write; categories are few, writes are rare
+    private volatile List<CategorySummary> snapshot;
+
+    private boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Document groupByCategoryAndPrice = new Document("$group", new Document()
+                .append("_id", new Document("category", "$category").append("price", "$price"))
+                .append("count", new Document("$sum", 1))
+                .append("inStock", new Document("$sum", new Document("$cond",
+                        List.of(new Document("$gt", List.of("$stockQuantity", 0)), 1, 0)))));
+
+        entries.clear();
+        for (Document group : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .aggregate(List.of(groupByCategoryAndPrice))) {
+            Document id = group.get("_id", Document.class);
+            String category = id.getString("category");
+            if (category == null) {
+                continue;
+            }
+            Number price = id.get("price", Number.class);
+            Entry entry = entries.computeIfAbsent(category, c -> new Entry());
+            entry.add(price == null ? null : price.longValue(),
+                    group.get("count", Number.class).intValue(), group.get("inStock", Number.class).intValue());
+        }
+        snapshot = null;
+        ready = true;
+        logger.info("Category directory built: {} categories in {} ms",
+                entries.size(), System.currentTimeMillis() - start);
+    }
+
+    public List<CategorySummary> getCategories() {
+        List<CategorySummary> categories = snapshot;
+        if (categories == null) {
+            categories = buildSnapshot();
+        }
+        return categories;
+    }
+
+    private synchronized List<CategorySummary> buildSnapshot() {
+        if (!ready) {
+            rebuild();
+        }
+        if (snapshot == null) {
+            List<CategorySummary> categories = new ArrayList<>(entries.size());
+            new TreeMap<>(entries).forEach((category, entry) -> categories.add(entry.toSummary(category)));
+            snapshot = Collections.unmodifiableList(categories);
+        }
+        return snapshot;
+    }
+
+    public void added(Product product) {
+        update(product.getCategory(), product.getPrice(), product.getStockQuantity(), 1);
+    }
+
+    public void removed(Product product) {
+        update(product.getCategory(), product.getPrice(), product.getStockQuantity(), -1);
+    }
+
+    public synchronized void changed(String oldCategory, Money oldPrice, Integer oldStock, Product product) {
+        update(oldCategory, oldPrice, oldStock, -1);
+        update(product.getCategory(), product.getPrice(), product.getStockQuantity(), 1);
+    }
+
+    private synchronized void update(String category, Money price, Integer stock, int sign) {
+        if (!ready || category == null) {
+            // Before the first build, the build itself will see this write
+            return;
+        }
+        Entry entry = entries.computeIfAbsent(category, c -> new Entry());
+        entry.add(price == null ? null : price.getMinor(), sign, stock != null && stock > 0 ? sign : 0);
+        if (entry.productCount <= 0) {
+            entries.remove(category);
+        }
+        snapshot = null;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("categories", entries.size());
+        return stats;
+    }
+
+    private static final class Entry {
+
+        private long productCount;
+        private long inStockCount;
+        // Minor units -> number of products at that price
+        private final TreeMap<Long, Integer> prices = new TreeMap<>();
+
+        private void add(Long price, int count, int inStock) {
+            productCount += count;
+            inStockCount += inStock;
+            if (price != null) {
+                prices.merge(price, count, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+
+        private CategorySummary toSummary(String category) {
+            return new CategorySummary(category, productCount, inStockCount,
+                    prices.isEmpty() ? null : Money.ofMinor(prices.firstKey()),
+                    prices.isEmpty() ? null : Money.ofMinor(prices.lastKey()));
+        }
+    }
+}
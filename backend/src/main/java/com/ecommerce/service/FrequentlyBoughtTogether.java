@@ -0,0 +1,485 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.OrderStatus;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * "Frequently bought together" co-occurrence counts, kept in memory and fed one order at a time.
+ *
+ * <p>Each product keeps a bounded set of neighbour counters, sized {@code top-k} times
+ * {@code capacity-factor}, and maintained with the space-saving algorithm. A new neighbour
+ * arriving at a full set replaces the smallest counter and inherits its count. Memory per product
+ * is therefore fixed, while the heavy neighbours are still counted almost exactly. Reads return a
+ * precomputed top-K list, so serving a product costs O(K).
+ *
+ * <p>Every {@code compaction-interval}, each product touched since the last run is trimmed back
+ * to its top K. This drops the overestimated tail, so newer pairings can compete. The trimmed
+ * counters are then upserted into {@code related_products}. At startup the structure loads from
+ * that snapshot in the background. If there is none, it is rebuilt from the order history, with
+ * order batches counted in parallel. Until the load finishes, no related products are served.
+ */
+@Component
+public class FrequentlyBoughtTogether {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrequentlyBoughtTogether.class);
+
+    private static final String SNAPSHOT_COLLECTION = "related_products";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${recommendations.related.top-k:10}")
+    private int topK;
+
+    @Value("${recommendations.related.capacity-factor:4}")
+    private int capacityFactor;
+
+    // Orders with more distinct products than this only pair their first ones
+    @Value("${recommendations.related.max-items-per-order:50}")
+    private int maxItemsPerOrder;
+
+    @Value("${recommendations.related.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${recommendations.related.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    private volatile Map<String, Neighbors> byProduct = new ConcurrentHashMap<>();
+    // Counters under construction by a rebuild; new orders are recorded here as well
+    private volatile Map<String, Neighbors> rebuilding;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicLong ordersRecorded = new AtomicLong();
+    private final AtomicLong snapshotWrites = new AtomicLong();
+    // Bumped on every change to the served counters; starts at boot time so a restart never
+    // reissues an ETag
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    private volatile boolean ready;
+
+    // Runs the startup load, so a rebuild from history does not hold up the application
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "related-products-load");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void init() {
+        topK = Math.max(1, topK);
+        capacityFactor = Math.max(1, capacityFactor);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        loader.execute(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                logger.error("Failed to load related products; an admin rebuild can retry", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * Loads the counters from the snapshot collection, or rebuilds them from the order history
+     * when there is no snapshot.
+     */
+    public synchronized void load() {
+        long start = System.currentTimeMillis();
+        Map<String, Neighbors> loaded = new ConcurrentHashMap<>();
+        // Orders placed while the snapshot is read are counted into it as well
+        rebuilding = loaded;
+        long products = 0;
+        try {
+            for (Document document : mongoTemplate.getCollection(SNAPSHOT_COLLECTION).find()) {
+                Neighbors neighbors = loaded.computeIfAbsent(document.getString("_id"),
+                        id -> new Neighbors(topK * capacityFactor));
+                for (Document neighbor : document.getList("related", Document.class, List.of())) {
+                    neighbors.add(neighbor.getString("productId"), neighbor.get("count", Number.class).longValue());
+                }
+                products++;
+            }
+            if (products > 0) {
+                // Swapped before the rebuilding map is cleared, so no order falls in between
+                byProduct = loaded;
+            }
+        } finally {
+            rebuilding = null;
+        }
+        if (products == 0) {
+            rebuildFromHistory();
+            return;
+        }
+        version.incrementAndGet();
+        ready = true;
+        logger.info("Related products loaded from snapshot: {} products in {} ms",
+                products, System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        List<String> productIds = productIdsOf(event.order());
+        Map<String, Neighbors> current = byProduct;
+        record(current, productIds);
+        Map<String, Neighbors> target = rebuilding;
+        if (target != null && target != current) {
+            record(target, productIds);
+        }
+        version.incrementAndGet();
+        ordersRecorded.incrementAndGet();
+    }
+
+    /**
+     * Returns up to {@code limit} products most often bought with the given one, most frequent
+     * first.
+     */
+    public List<String> related(String productId, int limit) {
+        if (!ready) {
+            // Counts recorded while the startup load runs are partial
+            return List.of();
+        }
+        Neighbors neighbors = byProduct.get(productId);
+        if (neighbors == null || limit <= 0) {
+            return List.of();
+        }
+        String[] top = neighbors.top(topK);
+        return Arrays.asList(top).subList(0, Math.min(limit, top.length));
+    }
+
+    /**
+     * Forgets a deleted product: its own counters and its place in every other product's
+     * neighbours. Products that listed it are rewritten in the snapshot at the next compaction.
+     */
+    public void remove(String productId) {
+        if (byProduct.remove(productId) != null) {
+            mongoTemplate.remove(new Query(where("_id").is(productId)), SNAPSHOT_COLLECTION);
+        }
+        dirty.remove(productId);
+        byProduct.forEach((id, neighbors) -> {
+            if (neighbors.remove(productId)) {
+                dirty.add(id);
+            }
+        });
+        Map<String, Neighbors> target = rebuilding;
+        if (target != null) {
+            target.remove(productId);
+            target.values().forEach(neighbors -> neighbors.remove(productId));
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Recounts every pair from the orders collection. The cursor reads the item lists, batches
+     * are counted exactly on {@code rebuild-threads} workers, and each batch is then merged into
+     * the bounded counters. The result replaces the snapshot.
+     */
+    public synchronized void rebuildFromHistory() {
+        long start = System.currentTimeMillis();
+        Map<String, Neighbors> rebuilt = new ConcurrentHashMap<>();
+        // Reads keep using the current counters until the rebuilt ones replace them
+        rebuilding = rebuilt;
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, rebuildThreads));
+        long orders = 0;
+        try {
+            List<Future<?>> batches = new ArrayList<>();
+            List<List<String>> batch = new ArrayList<>(rebuildBatchSize);
+            for (Document order : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                    .find(Filters.ne("status", OrderStatus.CANCELLED.name()))
+                    .projection(Projections.include("items.productId"))
+                    .batchSize(rebuildBatchSize)) {
+                batch.add(productIdsOf(order));
+                orders++;
+                if (batch.size() == rebuildBatchSize) {
+                    List<List<String>> itemSets = batch;
+                    batches.add(executor.submit(() -> countBatch(rebuilt, itemSets)));
+                    batch = new ArrayList<>(rebuildBatchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                List<List<String>> itemSets = batch;
+                batches.add(executor.submit(() -> countBatch(rebuilt, itemSets)));
+            }
+            for (Future<?> future : batches) {
+                future.get();
+            }
+            byProduct = rebuilt;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding related products", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to rebuild related products", e.getCause());
+        } finally {
+            executor.shutdown();
+            rebuilding = null;
+        }
+
+        version.incrementAndGet();
+        mongoTemplate.remove(new Query(), SNAPSHOT_COLLECTION);
+        dirty.addAll(rebuilt.keySet());
+        compact();
+        ready = true;
+        logger.info("Related products rebuilt from {} orders: {} products in {} ms",
+                orders, rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    // Exact pair counts for the batch first, so each shared counter is locked once per batch
+    private void countBatch(Map<String, Neighbors> target, List<List<String>> itemSets) {
+        Map<String, Map<String, Long>> pairs = new HashMap<>();
+        for (List<String> productIds : itemSets) {
+            int n = Math.min(productIds.size(), maxItemsPerOrder);
+            for (int i = 0; i < n; i++) {
+                Map<String, Long> counts = pairs.computeIfAbsent(productIds.get(i), id -> new HashMap<>());
+                for (int j = 0; j < n; j++) {
+                    if (i != j) {
+                        counts.merge(productIds.get(j), 1L, Long::sum);
+                    }
+                }
+            }
+        }
+        pairs.forEach((productId, counts) -> {
+            Neighbors neighbors = target.computeIfAbsent(productId, id -> new Neighbors(topK * capacityFactor));
+            counts.forEach(neighbors::add);
+        });
+    }
+
+    private void record(Map<String, Neighbors> target, List<String> productIds) {
+        int n = Math.min(productIds.size(), maxItemsPerOrder);
+        for (int i = 0; i < n; i++) {
+            String productId = productIds.get(i);
+            Neighbors neighbors = target.computeIfAbsent(productId, id -> new Neighbors(topK * capacityFactor));
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    neighbors.add(productIds.get(j), 1);
+                }
+            }
+            if (n > 1) {
+                dirty.add(productId);
+            }
+        }
+    }
+
+    private static List<String> productIdsOf(Order order) {
+        Set<String> productIds = new LinkedHashSet<>();
+        for (OrderItem item : order.getItems()) {
+            productIds.add(item.getProductId());
+        }
+        return new ArrayList<>(productIds);
+    }
+
+    private static List<String> productIdsOf(Document order) {
+        Set<String> productIds = new LinkedHashSet<>();
+        for (Document item : order.getList("items", Document.class, List.of())) {
+            String productId = item.getString("productId");
+            if (productId != null) {
+                productIds.add(productId);
+            }
+        }
+        return new ArrayList<>(productIds);
+    }
+
+    /**
+     * Trims the products touched since the last run to their top K and upserts them into the
+     * snapshot collection.
+     */
+    @Scheduled(fixedDelayString = "${recommendations.related.compaction-interval:PT5M}",
+            initialDelayString = "${recommendations.related.compaction-interval:PT5M}")
+    public void compact() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SNAPSHOT_COLLECTION);
+        int pending = 0;
+        for (String productId : new ArrayList<>(dirty)) {
+            dirty.remove(productId);
+            Neighbors neighbors = byProduct.get(productId);
+            if (neighbors == null) {
+                continue;
+            }
+            List<Document> related = neighbors.trim(topK);
+            bulk.replaceOne(new Query(where("_id").is(productId)),
+                    new Document("_id", productId).append("related", related).append("updatedAt", now),
+                    FindAndReplaceOptions.options().upsert());
+            if (++pending == rebuildBatchSize) {
+                pending = flush(bulk, pending);
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SNAPSHOT_COLLECTION);
+            }
+        }
+        flush(bulk, pending);
+    }
+
+    private int flush(BulkOperations bulk, int pending) {
+        if (pending == 0) {
+            return 0;
+        }
+        try {
+            bulk.execute();
+            snapshotWrites.addAndGet(pending);
+        } catch (DataAccessException e) {
+            // The in-memory counts stay authoritative; the snapshot catches up on a later write
+            logger.warn("Failed to persist related products snapshot: {}", e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Changes whenever the counters behind {@link #related(String, int)} may have changed, so it
+     * can be part of an ETag.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("products", byProduct.size());
+        stats.put("ordersRecorded", ordersRecorded.get());
+        stats.put("pendingSnapshot", dirty.size());
+        stats.put("snapshotWrites", snapshotWrites.get());
+        return stats;
+    }
+
+    /**
+     * Space-saving counters for the neighbours of one product, with a cached top-K view.
+     */
+    private static final class Neighbors {
+
+        private final String[] ids;
+        private final long[] counts;
+        private int size;
+        private volatile String[] top;
+
+        private Neighbors(int capacity) {
+            this.ids = new String[capacity];
+            this.counts = new long[capacity];
+        }
+
+        private synchronized void add(String id, long count) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i].equals(id)) {
+                    counts[i] += count;
+                    top = null;
+                    return;
+                }
+            }
+            if (size < ids.length) {
+                ids[size] = id;
+                counts[size] = count;
+                size++;
+            } else {
+                int min = 0;
+                for (int i = 1; i < size; i++) {
+                    if (counts[i] < counts[min]) {
+                        min = i;
+                    }
+                }
+                ids[min] = id;
+                counts[min] += count;
+            }
+            top = null;
+        }
+
+        private synchronized boolean remove(String id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i].equals(id)) {
+                    size--;
+                    ids[i] = ids[size];
+                    counts[i] = counts[size];
+                    ids[size] = null;
+                    counts[size] = 0;
+                    top = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String[] top(int k) {
+            String[] result = top;
+            if (result == null) {
+                synchronized (this) {
+                    sort();
+                    result = Arrays.copyOf(ids, Math.min(k, size));
+                    top = result;
+                }
+            }
+            return result;
+        }
+
+        private synchronized List<Document> trim(int k) {
+            sort();
+            for (int i = k; i < size; i++) {
+                ids[i] = null;
+                counts[i] = 0;
+            }
+            size = Math.min(size, k);
+            List<Document> related = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                related.add(new Document("productId", ids[i]).append("count", counts[i]));
+            }
+            top = Arrays.copyOf(ids, size);
+            return related;
+        }
+
+        // Insertion sort by count, descending; the arrays hold a few dozen entries
+        private void sort() {
+            for (int i = 1; i < size; i++) {
+                String id = ids[i];
+                long count = counts[i];
+                int j = i - 1;
+                while (j >= 0 && counts[j] < count) {
+                    ids[j + 1] = ids[j];
+                    counts[j + 1] = counts[j];
+                    j--;
+                }
+                ids[j + 1] = id;
+                counts[j + 1] = count;
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+
+/**
+ * Published by {@link OrderService#createOrder} once the order is saved. Listeners that feed
+ * in-memory views use {@code @TransactionalEventListener(fallbackExecution = true)}. They run after
+ * commit when a transaction is active and straight away otherwise.
+ */
+public record OrderPlacedEvent(Order order) {
+}
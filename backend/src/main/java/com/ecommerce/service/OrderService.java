@@ -1,14 +1,17 @@
 package com.ecommerce.service;
 
-import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.dto.CursorPage;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.*;
 import com.ecommerce.repository.OrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class OrderService {
@@ -22,6 +25,9 @@ public class OrderService {
     @Autowired
     private CartService cartService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public Order createOrder(String userId, Address shippingAddress) {
         Cart cart = cartService.getCart(userId);
@@ -30,16 +36,10 @@ public class OrderService {
             throw new IllegalArgumentException("Cannot create order with empty cart");
         }
 
-        // Validate stock availability
-        for (CartItem cartItem : cart.getItems()) {
-            Product product = productService.getProductById(cartItem.getProductId());
-            if (product.getStockQuantity() < cartItem.getQuantity()) {
-                throw new InsufficientStockException(
-                        "Insufficient stock for product: " + product.getName() +
-                                ". Available: " + product.getStockQuantity() +
-                                ", Requested: " + cartItem.getQuantity());
-            }
-        }
+        // Categories only feed the recommendation counters, so the near-cache is good enough here.
+        // Stock is not checked against it: the conditional decrements below are the check.
+        Map<String, Product> products = productService.getProductsByIds(
+                cart.getItems().stream().map(CartItem::getProductId).toList());
 
         // Create order
         Order order = new Order();
@@ -53,6 +53,7 @@ public class OrderService {
                     OrderItem orderItem = new OrderItem();
                     orderItem.setProductId(cartItem.getProductId());
                     orderItem.setProductName(cartItem.getProductName());
+                    orderItem.setCategory(products.get(cartItem.getProductId()).getCategory());
                     orderItem.setQuantity(cartItem.getQuantity());
                     orderItem.setPrice(cartItem.getPrice());
                     orderItem.setSubtotal(cartItem.getSubtotal());
@@ -63,10 +64,7 @@ public class OrderService {
         order.setItems(orderItems);
         order.setTotalAmount(cart.getTotalAmount());
 
-        // Deduct stock
-        for (OrderItem item : orderItems) {
-            productService.updateStock(item.getProductId(), -item.getQuantity());
-        }
+        deductStock(orderItems);
 
         // Save order
         Order savedOrder = orderRepository.save(order);
@@ -74,9 +72,28 @@ public class OrderService {
         // Clear cart
         cartService.clearCart(userId);
 
+        eventPublisher.publishEvent(new OrderPlacedEvent(savedOrder));
+
         return savedOrder;
     }
 
+    // Each decrement only applies if enough stock is left. If one fails, the ones already applied
+    // are given back before the failure propagates.
+    private void deductStock(List<OrderItem> orderItems) {
+        List<OrderItem> deducted = new ArrayList<>();
+        try {
+            for (OrderItem item : orderItems) {
+                productService.updateStock(item.getProductId(), -item.getQuantity());
+                deducted.add(item);
+            }
+        } catch (RuntimeException e) {
+            for (OrderItem item : deducted) {
+                productService.updateStock(item.getProductId(), item.getQuantity());
+            }
+            throw e;
+        }
+    }
+
     public Order getOrderById(String id) {
         return orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
@@ -86,14 +103,27 @@ public class OrderService {
         return orderRepository.findByUserId(userId);
     }
 
+    public CursorPage<Order> getUserOrders(String userId, String cursor, int size) {
+        return orderRepository.findByUserIdAfter(userId, cursor, size);
+    }
+
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
+    public CursorPage<Order> getAllOrders(String cursor, int size) {
+        return orderRepository.findAllAfter(cursor, size);
+    }
+
     public Order updateOrderStatus(String orderId, OrderStatus status) {
         Order order = getOrderById(orderId);
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        if (previousStatus != status) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(savedOrder, previousStatus));
+        }
+        return savedOrder;
     }
 
     public List<Order> getOrdersByStatus(OrderStatus status) {
@@ -0,0 +1,11 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderStatus;
+
+/**
+ * Published by {@link OrderService#updateOrderStatus} once the new status is saved, so in-memory
+ * views can react to cancellations. Listeners follow the same rules as for {@link OrderPlacedEvent}.
+ */
+public record OrderStatusChangedEvent(Order order, OrderStatus previousStatus) {
+}
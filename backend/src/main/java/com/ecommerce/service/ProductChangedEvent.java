@@ -0,0 +1,9 @@
+package com.ecommerce.service;
+
+/**
+ * Published by {@link ProductService} after a product write, before the {@link CatalogVersion} is
+ * bumped. {@code stockOnly} is set when only the stock quantity changed, as when an order is placed.
+ * A {@code null} {@code productId} means any product may have changed.
+ */
+public record ProductChangedEvent(String productId, boolean stockOnly) {
+}
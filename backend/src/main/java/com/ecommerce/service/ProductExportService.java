@@ -0,0 +1,87 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Streams the catalog as NDJSON, one product per line, straight from a MongoDB cursor to the
+ * response. Documents are fetched one cursor batch at a time and written as they arrive. A slow
+ * client blocks the write, which in turn delays the next {@code getMore}, so memory use is one
+ * batch plus the output buffer, whatever the size of the catalog.
+ *
+ * <p>Products come in {@code updatedAt} order (then by id), using the {@code updated_id} index.
+ * An incremental consumer can pass the last {@code updatedAt} it saw as the next
+ * {@code updatedSince}.
+ */
+@Service
+public class ProductExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.export.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Writes every product updated at or after {@code updatedSince}, or the whole catalog when it
+     * is null, and returns the number of products written.
+     */
+    public long exportProducts(LocalDateTime updatedSince, OutputStream output) throws IOException {
+        long start = System.currentTimeMillis();
+        Query query = updatedSince == null
+                ? new Query()
+                : new Query(where("updatedAt").gte(updatedSince));
+        query.with(Sort.by("updatedAt", "_id")).cursorBatchSize(batchSize);
+
+        ObjectWriter writer = objectMapper.writerFor(Product.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        AtomicLong count = new AtomicLong();
+        // Lines are separated explicitly, and the servlet container owns the response stream
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+             Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            products.forEach(product -> {
+                try {
+                    writer.writeValue(generator, product);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count.incrementAndGet();
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client going away; the response is already committed
+            logger.info("Product export aborted after {} products: {}", count.get(), e.getCause().getMessage());
+            throw e.getCause();
+        }
+        logger.info("Product export: {} products since {} in {} ms",
+                count.get(), updatedSince, System.currentTimeMillis() - start);
+        return count.get();
+    }
+}
@@ -0,0 +1,305 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductImportResult;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Streams a product feed into the catalog. Rows are parsed one at a time from NDJSON or CSV,
+ * validated like {@code POST /api/products}, and written in unordered {@code bulkWrite} batches.
+ * Rows with an {@code id} are upserted; rows without one are inserted. Memory use is bounded by
+ * the batch size and the error report cap, whatever the size of the feed.
+ *
+ * <p>Bulk writes bypass {@link ProductService}, so the in-memory catalog views are rebuilt once
+ * when an import has changed anything.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    public enum Format { NDJSON, CSV }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ProductService productService;
+
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${catalog.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    @Value("${catalog.import.max-line-length:65536}")
+    private int maxLineLength;
+
+    public ProductImportResult importProducts(InputStream input, Format format) throws IOException {
+        long start = System.currentTimeMillis();
+        ProductImportResult result = new ProductImportResult();
+        Batch batch = new Batch(result);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.NDJSON) {
+                readNdjson(reader, batch);
+            } else {
+                readCsv(reader, batch);
+            }
+            batch.flush();
+        } finally {
+            // Batches written before a failure (an aborted upload, a database error) are committed,
+            // so the views must follow them even when the import does not complete
+            if (result.getInserted() + result.getUpdated() > 0) {
+                productService.reloadCatalogViews();
+            }
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        result.setRowsPerSecond(result.getProcessed() * 1000 / Math.max(1, result.getElapsedMillis()));
+        logger.info("Product import: {} rows, {} inserted, {} updated, {} failed in {} ms ({} rows/s)",
+                result.getProcessed(), result.getInserted(), result.getUpdated(), result.getFailed(),
+                result.getElapsedMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+    private void readNdjson(BufferedReader reader, Batch batch) throws IOException {
+        BoundedLineReader lines = new BoundedLineReader(reader, maxLineLength);
+        while (true) {
+            String line;
+            try {
+                line = lines.next();
+            } catch (BoundedLineReader.LineTooLongException e) {
+                batch.reject(e.getLine(), e.getMessage());
+                continue;
+            }
+            if (line == null) {
+                break;
+            }
+            long lineNumber = lines.getLine();
+            if (line.isBlank()) {
+                continue;
+            }
+            Product product;
+            try {
+                product = objectMapper.readValue(line, Product.class);
+            } catch (JsonProcessingException e) {
+                batch.reject(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            if (product == null) {
+                batch.reject(lineNumber, "Expected a JSON object but found null");
+                continue;
+            }
+            batch.add(lineNumber, product);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Batch batch) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header;
+        try {
+            header = csv.next();
+        } catch (CsvRecordReader.MalformedRecordException e) {
+            batch.reject(e.getLine(), e.getMessage());
+            return;
+        }
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+
+        while (true) {
+            List<String> record;
+            try {
+                record = csv.next();
+            } catch (CsvRecordReader.MalformedRecordException e) {
+                batch.reject(e.getLine(), e.getMessage());
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+            long lineNumber = csv.getRecordLine();
+            if (record.size() != header.size()) {
+                batch.reject(lineNumber, "Expected " + header.size() + " fields but found " + record.size());
+                continue;
+            }
+            Product product;
+            try {
+                product = toProduct(record, columns);
+            } catch (IllegalArgumentException e) {
+                batch.reject(lineNumber, e.getMessage());
+                continue;
+            }
+            batch.add(lineNumber, product);
+        }
+    }
+
+    private static Product toProduct(List<String> record, Map<String, Integer> columns) {
+        Product product = new Product();
+        product.setId(column(record, columns, "id"));
+        product.setName(column(record, columns, "name"));
+        product.setDescription(column(record, columns, "description"));
+        product.setCategory(column(record, columns, "category"));
+        product.setImageUrl(column(record, columns, "imageUrl"));
+        String price = column(record, columns, "price");
+        product.setPrice(price == null ? null : Money.parse(price));
+        String stock = column(record, columns, "stockQuantity");
+        try {
+            product.setStockQuantity(stock == null ? null : Integer.valueOf(stock));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid stock quantity: " + stock);
+        }
+        return product;
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Accumulates validated rows and writes them as one unordered bulk operation per batch.
+     */
+    private class Batch {
+
+        private final ProductImportResult result;
+        private final List<Product> products = new ArrayList<>(batchSize);
+        private final List<Long> lineNumbers = new ArrayList<>(batchSize);
+
+        private Batch(ProductImportResult result) {
+            this.result = result;
+        }
+
+        private void add(long lineNumber, Product product) {
+            result.setProcessed(result.getProcessed() + 1);
+            Set<ConstraintViolation<Product>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                error(lineNumber, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            products.add(product);
+            lineNumbers.add(lineNumber);
+            if (products.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void reject(long lineNumber, String message) {
+            result.setProcessed(result.getProcessed() + 1);
+            error(lineNumber, message);
+        }
+
+        private void error(long lineNumber, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new ProductImportResult.RowError(lineNumber, message));
+            }
+        }
+
+        private void flush() {
+            if (products.isEmpty()) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            for (Product product : products) {
+                if (StringUtils.hasText(product.getId())) {
+                    bulk.upsert(new Query(where("_id").is(product.getId())), upsertOf(product, now));
+                } else {
+                    product.setVersion(1L);
+                    product.setCreatedAt(now);
+                    product.setUpdatedAt(now);
+                    bulk.insert(product);
+                }
+            }
+
+            try {
+                count(bulk.execute());
+            } catch (BulkOperationException e) {
+                count(e.getResult());
+                for (BulkWriteError error : e.getErrors()) {
+                    error(lineNumbers.get(error.getIndex()), error.getMessage());
+                }
+            }
+            products.clear();
+            lineNumbers.clear();
+        }
+
+        private void count(BulkWriteResult writeResult) {
+            result.setInserted(result.getInserted() + writeResult.getInsertedCount() + writeResult.getUpserts().size());
+            result.setUpdated(result.getUpdated() + writeResult.getMatchedCount());
+        }
+    }
+
+    private static Update upsertOf(Product product, LocalDateTime now) {
+        return new Update()
+                .set("name", product.getName())
+                .set("description", product.getDescription())
+                .set("price", product.getPrice().getMinor())
+                .set("category", product.getCategory())
+                .set("stockQuantity", product.getStockQuantity())
+                .set("imageUrl", product.getImageUrl())
+                .set("updatedAt", now)
+                .setOnInsert("createdAt", now)
+                .inc("version", 1);
+    }
+
+    public static Format formatOf(String contentType) {
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv")) {
+            return Format.CSV;
+        }
+        return Format.NDJSON;
+    }
+}
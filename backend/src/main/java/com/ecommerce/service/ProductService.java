@@ -1,14 +1,41 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.Bestseller;
+import com.ecommerce.dto.CategorySummary;
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.ProductQuery;
+import com.ecommerce.dto.ProductQueryResult;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.dto.Suggestion;
+import com.ecommerce.exception.InsufficientStockException;
 import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.Money;
 import com.ecommerce.model.Product;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.search.ProductSuggester;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class ProductService {
@@ -16,68 +43,316 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductSuggester suggester;
+
+    @Autowired
+    private SearchResultCache searchCache;
+
+    @Autowired
+    private FrequentlyBoughtTogether frequentlyBoughtTogether;
+
+    @Autowired
+    private BestsellerBoard bestsellerBoard;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private CategoryDirectory categoryDirectory;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${catalog.product-cache.max-size:10000}")
+    private long productCacheMaxSize;
+
+    @Value("${catalog.product-cache.ttl:PT10M}")
+    private Duration productCacheTtl;
+
+    // Near-cache for single-product lookups (product page, add to cart). Stock read from it may be
+    // stale, so orders rely on the conditional decrement in updateStock instead.
+    // Cached instances are shared, so write paths load their own copy via findProduct.
+    private Cache<String, Product> productCache;
+
+    @PostConstruct
+    void init() {
+        this.productCache = Caffeine.newBuilder()
+                .maximumSize(productCacheMaxSize)
+                .expireAfterWrite(productCacheTtl)
+                .recordStats()
+                .build();
+    }
+
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        product.setVersion(1L);
+        Product savedProduct = productRepository.save(product);
+        searchIndex.index(savedProduct);
+        suggester.index(savedProduct);
+        searchCache.productChanged(null, savedProduct);
+        categoryDirectory.added(savedProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), false));
+        catalogVersion.bump();
+        return savedProduct;
     }
 
     public Product getProductById(String id) {
+        return productCache.get(id, this::findProduct);
+    }
+
+    private Product findProduct(String id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
     }
 
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    /**
+     * Loads several products from the near-cache, fetching the ones it lacks with a single
+     * {@code $in} query.
+     *
+     * @throws ResourceNotFoundException if any id does not match a product
+     */
+    public Map<String, Product> getProductsByIds(Collection<String> ids) {
+        Map<String, Product> products = productCache.getAll(ids, this::findProducts);
+        for (String id : ids) {
+            if (!products.containsKey(id)) {
+                throw new ResourceNotFoundException("Product not found with id: " + id);
+            }
+        }
+        return products;
+    }
+
+    private Map<String, Product> findProducts(Set<? extends String> ids) {
+        Map<String, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(new ArrayList<>(ids))) {
+            products.put(product.getId(), product);
+        }
+        return products;
+    }
+
+    public Page<ProductSummary> getAllProducts(Pageable pageable) {
+        return productRepository.findAllBy(pageable);
     }
 
-    public Page<Product> getProductsByCategory(String category, Pageable pageable) {
+    public CursorPage<ProductSummary> getAllProducts(String cursor, int size) {
+        return productRepository.findAllAfter(cursor, size);
+    }
+
+    public Page<ProductSummary> getProductsByCategory(String category, Pageable pageable) {
         return productRepository.findByCategory(category, pageable);
     }
 
-    public Page<Product> searchProducts(String query, Pageable pageable) {
-        return productRepository.findByNameContainingIgnoreCase(query, pageable);
+    public CursorPage<ProductSummary> getProductsByCategory(String category, String cursor, int size) {
+        return productRepository.findByCategoryAfter(category, cursor, size);
     }
 
-    public Page<Product> getProductsByPriceRange(Double minPrice, Double maxPrice, Pageable pageable) {
-        return productRepository.findByPriceBetween(minPrice, maxPrice, pageable);
+    public Page<ProductSummary> searchProducts(String query, Pageable pageable) {
+        if (!searchIndex.isReady()) {
+            return productRepository.findByNameContainingIgnoreCase(query, pageable);
+        }
+        return searchCache.search(query, pageable, () -> {
+            Page<String> ids = searchIndex.search(query, pageable);
+            return new PageImpl<>(findAllInOrder(ids.getContent()), pageable, ids.getTotalElements());
+        });
+    }
+
+    // Single $in round trip, preserving the ranking order of the ids
+    private List<ProductSummary> findAllInOrder(List<String> ids) {
+        Map<String, ProductSummary> byId = new HashMap<>();
+        for (ProductSummary product : productRepository.findByIdIn(ids)) {
+            byId.put(product.getId(), product);
+        }
+        List<ProductSummary> products = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            ProductSummary product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    public ProductQueryResult queryProducts(ProductQuery query, Pageable pageable) {
+        if (query.getMinPrice() != null && query.getMaxPrice() != null
+                && query.getMinPrice().compareTo(query.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        return searchCache.query(query, pageable, () -> productRepository.query(query, pageable));
+    }
+
+    public Page<ProductSummary> getProductsByPriceRange(Money minPrice, Money maxPrice, Pageable pageable) {
+        return productRepository.findByPriceBetween(Range.closed(minPrice, maxPrice), pageable);
+    }
+
+    public CursorPage<ProductSummary> getProductsByPriceRange(Money minPrice, Money maxPrice, String cursor, int size) {
+        return productRepository.findByPriceBetweenAfter(minPrice, maxPrice, cursor, size);
     }
 
     public Product updateProduct(String id, Product productDetails) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
+        SearchResultCache.ProductState oldState = SearchResultCache.ProductState.of(product);
 
-        if (productDetails.getName() != null) {
-            product.setName(productDetails.getName());
+        // Only the changed fields are written, so an order's stock $inc between the read above and
+        // this update is kept
+        Product savedProduct = productRepository.updateDetails(id, productDetails);
+        if (savedProduct == null) {
+            throw new ResourceNotFoundException("Product not found with id: " + id);
         }
-        if (productDetails.getDescription() != null) {
-            product.setDescription(productDetails.getDescription());
+        productCache.invalidate(id);
+        searchIndex.index(savedProduct);
+        suggester.index(savedProduct);
+        searchCache.productChanged(oldState, savedProduct);
+        categoryDirectory.changed(product.getCategory(), product.getPrice(), product.getStockQuantity(), savedProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, false));
+        catalogVersion.bump();
+        return savedProduct;
+    }
+
+    public void deleteProduct(String id) {
+        Product product = findProduct(id);
+        productRepository.delete(product);
+        productCache.invalidate(id);
+        searchIndex.remove(id);
+        suggester.remove(id);
+        frequentlyBoughtTogether.remove(id);
+        bestsellerBoard.remove(id);
+        searchCache.productChanged(SearchResultCache.ProductState.of(product), null);
+        categoryDirectory.removed(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, false));
+        catalogVersion.bump();
+    }
+
+    /**
+     * Adds {@code quantity} to the stock of a product in one conditional update.
+     *
+     * @throws InsufficientStockException if {@code quantity} is negative and fewer than
+     *         {@code -quantity} units are in stock
+     */
+    public void updateStock(String productId, Integer quantity) {
+        Product product = productRepository.adjustStock(productId, quantity);
+        if (product == null) {
+            Product current = findProduct(productId);
+            throw new InsufficientStockException(
+                    "Insufficient stock for product: " + current.getName() +
+                            ". Available: " + current.getStockQuantity() +
+                            ", Requested: " + -quantity);
         }
-        if (productDetails.getPrice() != null) {
-            product.setPrice(productDetails.getPrice());
+        productCache.invalidate(productId);
+        categoryDirectory.changed(product.getCategory(), product.getPrice(),
+                product.getStockQuantity() - quantity, product);
+        searchCache.stockChanged(productId, product.getCategory(), product.getPrice(),
+                product.getStockQuantity() - quantity, product.getStockQuantity());
+        if (quantity < 0) {
+            // Stock only goes down when an order is placed
+            suggester.recordSale(productId, -quantity);
         }
-        if (productDetails.getCategory() != null) {
-            product.setCategory(productDetails.getCategory());
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, true));
+        catalogVersion.bump();
+    }
+
+    /**
+     * Resynchronizes every in-memory catalog view with the database after writes that bypassed
+     * this service, such as a bulk import.
+     */
+    public void reloadCatalogViews() {
+        productCache.invalidateAll();
+        searchCache.invalidateAll();
+        searchIndex.rebuild();
+        suggester.rebuild();
+        categoryDirectory.rebuild();
+        eventPublisher.publishEvent(new ProductChangedEvent(null, false));
+        catalogVersion.bump();
+    }
+
+    /**
+     * Drops the product near-cache and the search results after another instance wrote to the
+     * catalog, so they cannot be served under the new catalog version.
+     */
+    @EventListener
+    public void onCatalogChangedElsewhere(CatalogChangedElsewhereEvent event) {
+        productCache.invalidateAll();
+        searchCache.invalidateAll();
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggester.suggest(prefix, limit);
+    }
+
+    /**
+     * Products most often bought together with the given one, served from the recommendation
+     * counters and the product near-cache. Products deleted since they were counted are skipped.
+     */
+    public List<ProductSummary> getRelatedProducts(String id, int limit) {
+        getProductById(id);
+        List<ProductSummary> related = new ArrayList<>(limit);
+        for (String relatedId : frequentlyBoughtTogether.related(id, limit)) {
+            ProductSummary product = findCachedSummary(relatedId);
+            if (product != null) {
+                related.add(product);
+            }
         }
-        if (productDetails.getStockQuantity() != null) {
-            product.setStockQuantity(productDetails.getStockQuantity());
+        return related;
+    }
+
+    /**
+     * Best sellers of a window from the in-memory sketches, hydrated from the product near-cache.
+     *
+     * @throws IllegalArgumentException if the window is not one of the configured windows
+     */
+    public List<Bestseller> getBestsellers(String window, String category, int limit) {
+        if (!bestsellerBoard.hasWindow(window)) {
+            throw new IllegalArgumentException("Unknown window: " + window + ", expected one of " + bestsellerBoard.getWindows());
         }
-        if (productDetails.getImageUrl() != null) {
-            product.setImageUrl(productDetails.getImageUrl());
+        List<Bestseller> bestsellers = new ArrayList<>(Math.max(0, limit));
+        for (BestsellerBoard.Ranked ranked : bestsellerBoard.top(window, category, limit)) {
+            ProductSummary product = findCachedSummary(ranked.productId());
+            if (product != null) {
+                bestsellers.add(new Bestseller(product, ranked.units()));
+            }
         }
+        return bestsellers;
+    }
 
-        return productRepository.save(product);
+    // Null for products deleted since they were counted
+    private ProductSummary findCachedSummary(String id) {
+        Product product = productCache.get(id, key -> productRepository.findById(key).orElse(null));
+        if (product == null) {
+            return null;
+        }
+        return new ProductSummary(product.getId(), product.getName(), product.getPrice(),
+                product.getCategory(), product.getImageUrl(), product.getStockQuantity());
     }
 
-    public void deleteProduct(String id) {
-        Product product = getProductById(id);
-        productRepository.delete(product);
+    public List<CategorySummary> getCategories() {
+        return categoryDirectory.getCategories();
     }
 
-    public void updateStock(String productId, Integer quantity) {
-        Product product = getProductById(productId);
-        product.setStockQuantity(product.getStockQuantity() + quantity);
-        productRepository.save(product);
+    public long getCatalogVersion() {
+        return catalogVersion.current();
+    }
+
+    public long getRelatedVersion() {
+        return frequentlyBoughtTogether.getVersion();
+    }
+
+    public long getBestsellerVersion() {
+        return bestsellerBoard.getVersion();
     }
 
     public List<Product> getAvailableProducts() {
         return productRepository.findByStockQuantityGreaterThan(0);
     }
+
+    public Map<String, Object> getCacheStats() {
+        CacheStats cacheStats = productCache.stats();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", productCache.estimatedSize());
+        stats.put("hits", cacheStats.hitCount());
+        stats.put("misses", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("evictions", cacheStats.evictionCount());
+        return stats;
+    }
 }
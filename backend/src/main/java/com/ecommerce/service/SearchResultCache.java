@@ -0,0 +1,268 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductQuery;
+import com.ecommerce.dto.ProductQueryResult;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.ecommerce.search.TextNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for {@code /api/products/search} and {@code /api/products/query}. Entries are keyed
+ * by normalized text, filters, sort, offset and page size.
+ *
+ * <p>A product write drops only the entries it could affect:
+ * <ul>
+ *   <li>entries whose page shows the product;</li>
+ *   <li>search entries whose terms all prefix-match a word of the product, before or after the
+ *       write;</li>
+ *   <li>query entries whose category or price filter admits the product, before or after the
+ *       write, since either one feeds the result or a facet.</li>
+ * </ul>
+ * Query text goes through MongoDB's stemmer and is not matched here. A stock change that does not
+ * cross zero only affects the pages that show the product.
+ *
+ * <p>BM25 scores depend on corpus statistics, so a write can shift the order of unrelated
+ * results slightly. Those entries are kept until their TTL expires.
+ */
+@Component
+public class SearchResultCache {
+
+    private enum Kind { SEARCH, QUERY }
+
+    @Value("${catalog.search-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${catalog.search-cache.ttl:PT5M}")
+    private Duration ttl;
+
+    private Cache<Key, Entry> cache;
+
+    // Incremented before every invalidation; a load that overlapped one is not cached
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong invalidated = new AtomicLong();
+    private final AtomicLong maxFanOut = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Page<ProductSummary> search(String text, Pageable pageable, Supplier<Page<ProductSummary>> loader) {
+        String terms = String.join(" ", new LinkedHashSet<>(TextNormalizer.tokenize(text)));
+        Key key = new Key(Kind.SEARCH, terms, null, null, null, false, null, pageable.getOffset(), pageable.getPageSize());
+        return lookup(key, loader, Page::getContent);
+    }
+
+    public ProductQueryResult query(ProductQuery query, Pageable pageable, Supplier<ProductQueryResult> loader) {
+        String text = query.getText() == null ? null
+                : TextNormalizer.normalize(query.getText()).trim().replaceAll("\\s+", " ");
+        Key key = new Key(Kind.QUERY, text, query.getCategory(), query.getMinPrice(), query.getMaxPrice(),
+                query.isInStockOnly(), query.getSort(), pageable.getOffset(), pageable.getPageSize());
+        return lookup(key, loader, ProductQueryResult::getContent);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(Key key, Supplier<T> loader, Function<T, List<ProductSummary>> content) {
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached.result;
+        }
+        long seen = writes.get();
+        T result = loader.get();
+        List<ProductSummary> page = content.apply(result);
+        String[] productIds = new String[page.size()];
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = page.get(i).getId();
+        }
+        Entry entry = new Entry(result, productIds, key.kind == Kind.SEARCH ? key.text.split(" ") : null);
+        if (writes.get() == seen) {
+            cache.put(key, entry);
+            // An invalidation that started after the check may already have iterated past the
+            // key; it bumped the counter first, so seeing it here means the entry may be stale
+            if (writes.get() != seen) {
+                cache.asMap().remove(key, entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the entries a product write can affect. {@code before} is null for a new product and
+     * {@code after} is null for a deleted one.
+     */
+    public void productChanged(ProductState before, Product after) {
+        ProductState afterState = after == null ? null : ProductState.of(after);
+        String productId = before != null ? before.id : afterState.id;
+        invalidate((key, entry) -> entry.shows(productId)
+                || (before != null && key.couldInclude(entry, before))
+                || (afterState != null && key.couldInclude(entry, afterState)));
+    }
+
+    /**
+     * Drops the entries a stock change can affect. Searches ignore stock, so only pages showing
+     * the product and, when stock crosses zero, in-stock queries admitting it are dropped.
+     */
+    public void stockChanged(String productId, String category, Money price, int oldStock, int newStock) {
+        boolean crossedZero = (oldStock > 0) != (newStock > 0);
+        ProductState state = new ProductState(productId, null, category, price, Math.max(oldStock, newStock));
+        invalidate((key, entry) -> entry.shows(productId)
+                || (crossedZero && key.inStockOnly && key.couldInclude(entry, state)));
+    }
+
+    public void invalidateAll() {
+        writes.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private void invalidate(BiPredicate<Key, Entry> affected) {
+        writes.incrementAndGet();
+        long fanOut = 0;
+        for (Map.Entry<Key, Entry> cached : cache.asMap().entrySet()) {
+            if (affected.test(cached.getKey(), cached.getValue())
+                    && cache.asMap().remove(cached.getKey(), cached.getValue())) {
+                fanOut++;
+            }
+        }
+        invalidated.addAndGet(fanOut);
+        maxFanOut.accumulateAndGet(fanOut, Math::max);
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats cacheStats = cache.stats();
+        long writeCount = writes.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", cache.estimatedSize());
+        stats.put("hits", cacheStats.hitCount());
+        stats.put("misses", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("writes", writeCount);
+        stats.put("invalidated", invalidated.get());
+        stats.put("meanFanOut", writeCount == 0 ? 0.0 : (double) invalidated.get() / writeCount);
+        stats.put("maxFanOut", maxFanOut.get());
+        return stats;
+    }
+
+    /**
+     * The fields of a product that decide which cached results it can appear in. Capture it
+     * before mutating a loaded product.
+     */
+    public static final class ProductState {
+
+        private final String id;
+        // Words of the fields the search index covers; null when unknown
+        private final Set<String> words;
+        private final String category;
+        private final Money price;
+        private final int stock;
+
+        private ProductState(String id, Set<String> words, String category, Money price, int stock) {
+            this.id = id;
+            this.words = words;
+            this.category = category;
+            this.price = price;
+            this.stock = stock;
+        }
+
+        public static ProductState of(Product product) {
+            Set<String> words = new HashSet<>();
+            words.addAll(TextNormalizer.tokenize(product.getName()));
+            words.addAll(TextNormalizer.tokenize(product.getCategory()));
+            words.addAll(TextNormalizer.tokenize(product.getDescription()));
+            int stock = product.getStockQuantity() == null ? 0 : product.getStockQuantity();
+            return new ProductState(product.getId(), words, product.getCategory(), product.getPrice(), stock);
+        }
+
+        private boolean matchesAll(String[] terms) {
+            if (words == null) {
+                return true;
+            }
+            for (String term : terms) {
+                if (!matches(term)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Every term counts as a prefix, a superset of what the index matches
+        private boolean matches(String term) {
+            if (words.contains(term)) {
+                return true;
+            }
+            for (String word : words) {
+                if (word.startsWith(term)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Key(Kind kind, String text, String category, Money minPrice, Money maxPrice,
+                       boolean inStockOnly, ProductQuery.SortOrder sort, long offset, int size) {
+
+        private boolean couldInclude(Entry entry, ProductState product) {
+            if (kind == Kind.SEARCH) {
+                return product.matchesAll(entry.terms);
+            }
+            if (inStockOnly && product.stock <= 0) {
+                return false;
+            }
+            // The category facet ignores the category filter and the price histogram ignores the
+            // price filter, so passing either filter is enough to change the result
+            return categoryAdmits(product) || priceAdmits(product);
+        }
+
+        private boolean categoryAdmits(ProductState product) {
+            return category == null || category.isEmpty() || category.equals(product.category);
+        }
+
+        private boolean priceAdmits(ProductState product) {
+            if (minPrice == null && maxPrice == null) {
+                return true;
+            }
+            if (product.price == null) {
+                return false;
+            }
+            return (minPrice == null || product.price.compareTo(minPrice) >= 0)
+                    && (maxPrice == null || product.price.compareTo(maxPrice) <= 0);
+        }
+    }
+
+    private record Entry(Object result, String[] productIds, String[] terms) {
+
+        private boolean shows(String productId) {
+            for (String id : productIds) {
+                if (id.equals(productId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
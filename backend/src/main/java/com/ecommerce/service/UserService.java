@@ -10,6 +10,7 @@ import com.ecommerce.model.User;
 import com.ecommerce.model.UserRole;
 import com.ecommerce.repository.PasswordResetTokenRepository;
 import com.ecommerce.repository.UserRepository;
+import com.ecommerce.security.CachingUserDetailsService;
 import com.ecommerce.security.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -41,6 +42,9 @@ public class UserService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private CachingUserDetailsService userDetailsCache;
+
     public User registerUser(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new DuplicateResourceException("Email already exists: " + request.getEmail());
@@ -63,7 +67,7 @@ public class UserService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        String token = jwtUtil.generateToken(user.getEmail());
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId());
 
         return new LoginResponse(
                 token,
@@ -93,7 +97,9 @@ public class UserService {
             user.setLastName(userDetails.getLastName());
         }
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userDetailsCache.evict(email);
+        return savedUser;
     }
 
     public void createPasswordResetToken(String email) {
@@ -134,6 +140,7 @@ public class UserService {
         // Update password
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userDetailsCache.evict(user.getEmail());
 
         // Mark token as used
         resetToken.setUsed(true);
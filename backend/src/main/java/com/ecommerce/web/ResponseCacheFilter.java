@@ -0,0 +1,278 @@
+package com.ecommerce.web;
+
+import com.ecommerce.service.CatalogChangedElsewhereEvent;
+import com.ecommerce.service.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the encoded bytes of anonymous catalog reads: {@code GET /api/products},
+ * {@code /api/products/category/{category}} and {@code /api/products/{id}}. A hit is written
+ * straight from memory, without a repository call or Jackson serialization. Responses above the
+ * gzip threshold also keep a precompressed copy for clients that accept gzip.
+ *
+ * <p>Entries are keyed by path and sorted query parameters and remember the products they show:
+ * the id in the path, or the ids the controller lists in {@link #SHOWN_PRODUCTS_ATTRIBUTE}. A stock
+ * change, which every order makes, drops only the entries showing that product. Other product
+ * writes and writes made on another instance drop the whole cache. Both copies of an entry are
+ * served with {@code Vary: Accept-Encoding} under a weak ETag, since the bytes differ. Requests
+ * with an {@code Authorization} header are not cached.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    /**
+     * Request attribute holding the ids, as a {@code String[]}, of the products a list response shows.
+     */
+    public static final String SHOWN_PRODUCTS_ATTRIBUTE = ResponseCacheFilter.class.getName() + ".shownProducts";
+
+    private static final String PRODUCTS_PATH = "/api/products";
+    private static final String CATEGORY_PREFIX = PRODUCTS_PATH + "/category/";
+
+    // Single-segment routes under /api/products that are not product ids
+    private static final Set<String> NON_ID_SEGMENTS = Set.of("search", "query", "categories", "price-range", "import", "export", "suggest", "bestsellers");
+
+    @Value("${catalog.response-cache.max-size:32MB}")
+    private DataSize maxSize;
+
+    @Value("${catalog.response-cache.ttl:PT10M}")
+    private Duration ttl;
+
+    @Value("${catalog.response-cache.gzip-min-size:2KB}")
+    private DataSize gzipMinSize;
+
+    private Cache<String, CachedResponse> cache;
+
+    // Bumped before every invalidation, so a miss can tell whether a write raced with it
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong invalidated = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> response.weight(key))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) || request.getHeader(HttpHeaders.AUTHORIZATION) != null) {
+            return true;
+        }
+        return !isCatalogRead(request.getServletPath());
+    }
+
+    static boolean isCatalogRead(String path) {
+        if (PRODUCTS_PATH.equals(path)) {
+            return true;
+        }
+        if (!path.startsWith(PRODUCTS_PATH + "/")) {
+            return false;
+        }
+        if (path.startsWith(CATEGORY_PREFIX)) {
+            return path.indexOf('/', CATEGORY_PREFIX.length()) < 0 && path.length() > CATEGORY_PREFIX.length();
+        }
+        String segment = path.substring(PRODUCTS_PATH.length() + 1);
+        return !segment.isEmpty() && segment.indexOf('/') < 0 && !NON_ID_SEGMENTS.contains(segment);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String key = keyOf(request);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            write(cached, request, response);
+            return;
+        }
+
+        long seen = writes.get();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() == HttpStatus.OK.value() && isJson(wrapper.getContentType())) {
+            byte[] body = wrapper.getContentAsByteArray();
+            CachedResponse entry = new CachedResponse(shownProducts(request), body, gzip(body),
+                    wrapper.getContentType(),
+                    weak(wrapper.getHeader(HttpHeaders.ETAG)),
+                    wrapper.getHeader(HttpHeaders.CACHE_CONTROL));
+            if (writes.get() == seen) {
+                cache.put(key, entry);
+                // Same check as SearchResultCache: an invalidation that bumped the counter after
+                // the first check may already have iterated past the key
+                if (writes.get() != seen) {
+                    cache.asMap().remove(key, entry);
+                }
+            }
+            if (entry.etag != null) {
+                wrapper.setHeader(HttpHeaders.ETAG, entry.etag);
+            }
+            wrapper.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    /**
+     * Ids of the products a response shows, or {@code null} if unknown, which matches every product.
+     */
+    private static String[] shownProducts(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.startsWith(PRODUCTS_PATH + "/") && !path.startsWith(CATEGORY_PREFIX)) {
+            return new String[] {path.substring(PRODUCTS_PATH.length() + 1)};
+        }
+        return request.getAttribute(SHOWN_PRODUCTS_ATTRIBUTE) instanceof String[] ids ? ids : null;
+    }
+
+    // The gzip copy has different bytes, so a strong validator would be wrong for one of them
+    static String weak(String etag) {
+        return etag == null || etag.startsWith("W/") ? etag : "W/" + etag;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.stockOnly() || event.productId() == null) {
+            invalidateAll();
+            return;
+        }
+        writes.incrementAndGet();
+        for (Map.Entry<String, CachedResponse> cached : cache.asMap().entrySet()) {
+            if (cached.getValue().shows(event.productId())
+                    && cache.asMap().remove(cached.getKey(), cached.getValue())) {
+                invalidated.incrementAndGet();
+            }
+        }
+    }
+
+    @EventListener
+    public void onCatalogChangedElsewhere(CatalogChangedElsewhereEvent event) {
+        invalidateAll();
+    }
+
+    private void invalidateAll() {
+        writes.incrementAndGet();
+        invalidated.addAndGet(cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    private static String keyOf(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getServletPath());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator)
+                        .append(URLEncoder.encode(parameter.getKey(), StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isJson(String contentType) {
+        return contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+
+    private byte[] gzip(byte[] body) throws IOException {
+        if (body.length < gzipMinSize.toBytes()) {
+            return null;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (cached.cacheControl != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cached.cacheControl);
+        }
+        if (cached.etag != null && new ServletWebRequest(request, response).checkNotModified(cached.etag)) {
+            return;
+        }
+        response.setContentType(cached.contentType);
+        byte[] body = cached.body;
+        if (cached.gzipped != null && acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = cached.gzipped;
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats cacheStats = cache.stats();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", cache.estimatedSize());
+        stats.put("weightBytes", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+        stats.put("maxBytes", maxSize.toBytes());
+        stats.put("hits", cacheStats.hitCount());
+        stats.put("misses", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("evictions", cacheStats.evictionCount());
+        stats.put("writes", writes.get());
+        stats.put("invalidated", invalidated.get());
+        return stats;
+    }
+
+    private record CachedResponse(String[] productIds, byte[] body, byte[] gzipped, String contentType,
+                                  String etag, String cacheControl) {
+
+        boolean shows(String productId) {
+            if (productIds == null) {
+                return true;
+            }
+            for (String id : productIds) {
+                if (id.equals(productId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int weight(String key) {
+            return key.length() * 2 + body.length + (gzipped == null ? 0 : gzipped.length)
+                    + (productIds == null ? 0 : productIds.length * 64);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.config;
+
+import com.ecommerce.MongoContainerTest;
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.Product;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the migration's pipeline updates on a real server and checks that every converted amount
+ * equals what {@link MongoConfig} reads from the same double, including binary-inexact halves.
+ */
+@DataMongoTest
+@Import({MongoConfig.class, MoneyMigration.class})
+class MoneyMigrationTest extends MongoContainerTest {
+
+    private static final double[] AMOUNTS = {19.99, 0.1 + 0.2, 2.675, 2.665, 0.285, 1499.0, 0.0};
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MoneyMigration moneyMigration;
+
+    private final MongoConfig.DoubleToMoneyConverter doubleToMoney = new MongoConfig.DoubleToMoneyConverter();
+
+    @BeforeEach
+    void clear() {
+        mongoTemplate.dropCollection(Product.class);
+        mongoTemplate.dropCollection(Cart.class);
+    }
+
+    @Test
+    void convertsProductPricesLikeTheDoubleReader() {
+        MongoCollection<Document> products = collection(Product.class);
+        for (double amount : AMOUNTS) {
+            products.insertOne(new Document("name", Double.toString(amount)).append("price", amount));
+        }
+
+        moneyMigration.migrate();
+
+        for (Document product : products.find()) {
+            double original = Double.parseDouble(product.getString("name"));
+            assertThat(product.get("price"))
+                    .as("price %s", original)
+                    .isInstanceOf(Long.class)
+                    .isEqualTo(doubleToMoney.convert(original).getMinor());
+        }
+    }
+
+    @Test
+    void convertsCartLinesAndTotalsAndLeavesMinorUnitsAlone() {
+        MongoCollection<Document> carts = collection(Cart.class);
+        carts.insertOne(new Document("userId", "legacy")
+                .append("items", List.of(new Document("productId", "p1").append("quantity", 3)
+                        .append("price", 2.675).append("subtotal", 8.025)))
+                .append("totalAmount", 8.025));
+        carts.insertOne(new Document("userId", "current")
+                .append("items", List.of(new Document("productId", "p1").append("quantity", 1)
+                        .append("price", 1999L).append("subtotal", 1999L)))
+                .append("totalAmount", 1999L));
+
+        moneyMigration.migrate();
+
+        Document legacy = carts.find(new Document("userId", "legacy")).first();
+        Document line = legacy.getList("items", Document.class).get(0);
+        assertThat(line.get("price")).isEqualTo(268L);
+        assertThat(line.get("subtotal")).isEqualTo(doubleToMoney.convert(8.025).getMinor());
+        assertThat(line.get("quantity")).isEqualTo(3);
+        assertThat(legacy.get("totalAmount")).isEqualTo(doubleToMoney.convert(8.025).getMinor());
+
+        Document current = carts.find(new Document("userId", "current")).first();
+        assertThat(current.getList("items", Document.class).get(0).get("price")).isEqualTo(1999L);
+        assertThat(current.get("totalAmount")).isEqualTo(1999L);
+    }
+
+    @Test
+    void secondRunChangesNothing() {
+        collection(Product.class).insertOne(new Document("name", "mug").append("price", 2.665));
+        moneyMigration.migrate();
+        Document migrated = collection(Product.class).find().first();
+
+        moneyMigration.migrate();
+
+        assertThat(collection(Product.class).find().first()).isEqualTo(migrated);
+        assertThat(migrated.get("price")).isEqualTo(267L);
+    }
+
+    private MongoCollection<Document> collection(Class<?> type) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(type));
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.Money;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoConfigTest {
+
+    private final MongoConfig.DoubleToMoneyConverter doubleToMoney = new MongoConfig.DoubleToMoneyConverter();
+
+    @Test
+    void roundsLegacyDoublesHalfUpFromTheirDecimalValue() {
+        assertThat(minor(19.99)).isEqualTo(1999);
+        assertThat(minor(0.1 + 0.2)).isEqualTo(30);
+        // 2.675 is 2.67499999999999982236431605997495353221893310546875 in binary
+        assertThat(minor(2.675)).isEqualTo(268);
+        assertThat(minor(2.665)).isEqualTo(267);
+        assertThat(minor(1499.0)).isEqualTo(149900);
+        assertThat(minor(0.004)).isZero();
+    }
+
+    @Test
+    void storesMinorUnits() {
+        assertThat(new MongoConfig.MoneyToLongConverter().convert(Money.parse("12.34"))).isEqualTo(1234L);
+        assertThat(new MongoConfig.LongToMoneyConverter().convert(1234L)).isEqualTo(Money.parse("12.34"));
+    }
+
+    private long minor(double value) {
+        return doubleToMoney.convert(value).getMinor();
+    }
+}
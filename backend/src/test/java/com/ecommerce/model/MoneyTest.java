@@ -0,0 +1,65 @@
+package com.ecommerce.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void acceptsAtMostTwoSignificantFractionalDigits() {
+        assertThat(Money.parse("19.99").getMinor()).isEqualTo(1999);
+        assertThat(Money.parse(" 1499 ").getMinor()).isEqualTo(149900);
+        assertThat(Money.parse("19.990").getMinor()).isEqualTo(1999);
+        assertThat(Money.of(new BigDecimal("0.1")).getMinor()).isEqualTo(10);
+    }
+
+    @Test
+    void rejectsAmountsItWouldHaveToRound() {
+        assertThatThrownBy(() -> Money.parse("19.999")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.parse("0.005")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.parse("ten")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1e20"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sumsExactlyWhereDoublesDrift() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.parse("0.10"));
+        }
+
+        assertThat(total).isEqualTo(Money.parse("1.00"));
+        assertThat(Money.parse("0.10").plus(Money.parse("0.20"))).isEqualTo(Money.parse("0.30"));
+        assertThat(Money.parse("33.33").times(3)).isEqualTo(Money.parse("99.99"));
+    }
+
+    @Test
+    void overflowFailsInsteadOfWrapping() {
+        Money max = Money.ofMinor(Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> max.plus(Money.ofMinor(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.times(2)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void writesJsonWithTwoFractionalDigits() throws Exception {
+        assertThat(objectMapper.writeValueAsString(Money.parse("1499"))).isEqualTo("1499.00");
+        assertThat(objectMapper.writeValueAsString(Money.ofMinor(5))).isEqualTo("0.05");
+        assertThat(objectMapper.readValue("19.99", Money.class)).isEqualTo(Money.ofMinor(1999));
+        assertThat(Money.ofMinor(-250).toString()).isEqualTo("-2.50");
+    }
+
+    @Test
+    void ordersAndComparesByAmount() {
+        assertThat(Money.parse("9.99")).isLessThan(Money.parse("10.00"));
+        assertThat(Money.parse("10")).isEqualTo(Money.parse("10.00")).hasSameHashCodeAs(Money.ofMinor(1000));
+        assertThat(Money.ofMinor(0)).isSameAs(Money.ZERO);
+    }
+}
@@ -0,0 +1,159 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.MongoContainerTest;
+import com.ecommerce.config.MongoConfig;
+import com.ecommerce.config.MongoIndexBootstrap;
+import com.ecommerce.dto.CartOperation;
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers one cart from many threads through the cart repository's single-findAndModify updates.
+ * No quantity may be lost, and the stored total must always equal the sum of the line subtotals.
+ */
+@DataMongoTest
+@Import({MongoConfig.class, MongoIndexBootstrap.class})
+class CartRepositoryConcurrencyTest extends MongoContainerTest {
+
+    private static final int THREADS = 16;
+    private static final int ADDS_PER_THREAD = 50;
+    private static final String USER = "user-1";
+
+    private static final Map<String, Money> PRICES = Map.of(
+            "p1", Money.parse("19.99"),
+            "p2", Money.parse("0.10"),
+            "p3", Money.parse("1499.00"));
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void clear() {
+        cartRepository.deleteAll();
+    }
+
+    @Test
+    void parallelAddsLoseNoQuantityAndKeepTheTotalEqualToTheLines() throws Exception {
+        // No cart exists yet, so the first adds also race to create it
+        runConcurrently(thread -> () -> {
+            for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                String productId = "p" + (1 + (thread + i) % 3);
+                cartRepository.addItem(USER, line(productId, 1 + i % 2));
+            }
+            return null;
+        });
+
+        assertThat(mongoTemplate.count(new Query(), Cart.class)).isEqualTo(1);
+        Cart cart = cartRepository.findByUserId(USER).orElseThrow();
+        long expectedUnits = 0;
+        for (int i = 0; i < ADDS_PER_THREAD; i++) {
+            expectedUnits += THREADS * (1 + i % 2);
+        }
+        assertThat(cart.getItems()).hasSize(3);
+        assertThat(cart.getItems().stream().mapToLong(CartItem::getQuantity).sum()).isEqualTo(expectedUnits);
+        assertConsistent(cart);
+    }
+
+    @Test
+    void mixedParallelMutationsKeepEveryLineAndTheTotalConsistent() throws Exception {
+        cartRepository.addItem(USER, line("p1", 1));
+        cartRepository.addItem(USER, line("p2", 1));
+
+        runConcurrently(thread -> () -> {
+            for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                switch ((thread + i) % 4) {
+                    case 0 -> cartRepository.addItem(USER, line("p1", 1));
+                    case 1 -> cartRepository.setItemQuantity(USER, "p2", 1 + i);
+                    case 2 -> cartRepository.removeItem(USER, "p3");
+                    default -> cartRepository.applyOperations(USER, List.of(
+                            new CartOperation(CartOperation.Type.ADD, "p3", 2),
+                            new CartOperation(CartOperation.Type.ADD, "p1", 1)), Map.of("p3", line("p3", 2), "p1", line("p1", 1)));
+                }
+            }
+            return null;
+        });
+
+        Cart cart = cartRepository.findByUserId(USER).orElseThrow();
+        // Every p1 add, single or batched, must be there
+        long p1Adds = 1;
+        for (int thread = 0; thread < THREADS; thread++) {
+            for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                int kind = (thread + i) % 4;
+                if (kind == 0 || kind == 3) {
+                    p1Adds++;
+                }
+            }
+        }
+        assertThat(cart.getItems()).filteredOn(item -> item.getProductId().equals("p1"))
+                .singleElement().extracting(CartItem::getQuantity).isEqualTo((int) p1Adds);
+        assertConsistent(cart);
+    }
+
+    private void assertConsistent(Cart cart) {
+        long total = 0;
+        for (CartItem item : cart.getItems()) {
+            assertThat(item.getPrice()).isEqualTo(PRICES.get(item.getProductId()));
+            assertThat(item.getSubtotal()).as(item.getProductId()).isEqualTo(item.getPrice().times(item.getQuantity()));
+            total += item.getSubtotal().getMinor();
+        }
+        assertThat(cart.getTotalAmount()).isEqualTo(Money.ofMinor(total));
+        assertThat(cart.getItems()).extracting(CartItem::getProductId).doesNotHaveDuplicates();
+    }
+
+    private interface Worker {
+        Callable<Void> forThread(int thread);
+    }
+
+    private static void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                Callable<Void> task = worker.forThread(thread);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static CartItem line(String productId, int quantity) {
+        CartItem item = new CartItem();
+        item.setProductId(productId);
+        item.setProductName("Product " + productId);
+        item.setPrice(PRICES.get(productId));
+        item.setQuantity(quantity);
+        return item;
+    }
+}
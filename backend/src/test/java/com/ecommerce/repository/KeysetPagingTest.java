@@ -0,0 +1,170 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.CursorPage;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ExecutableFindOperation;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KeysetPagingTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final List<Query> queries = new ArrayList<>();
+
+    @Test
+    void firstSliceFetchesOneExtraRowToDetectTheNextSlice() {
+        returning(row("p1", 100L), row("p2", 200L), row("p3", 300L));
+
+        CursorPage<Row> page = find("price", Sort.Direction.ASC, null, 2);
+
+        assertThat(page.getContent()).extracting(Row::id).containsExactly("p1", "p2");
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getNextCursor()).isNotBlank();
+        Query query = queries.get(0);
+        assertThat(query.getLimit()).isEqualTo(3);
+        assertThat(query.getQueryObject()).isEmpty();
+        assertThat(query.getSortObject()).isEqualTo(new Document("price", 1).append("id", 1));
+    }
+
+    @Test
+    void lastSliceHasNoCursor() {
+        returning(row("p1", 100L));
+
+        CursorPage<Row> page = find("price", Sort.Direction.ASC, null, 2);
+
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorSeeksPastTheLastRowBreakingTiesById() {
+        // Equal prices across the slice boundary: only the id tells the rows apart
+        returning(row("p1", 999L), row("p2", 999L), row("p3", 999L));
+        String cursor = find("price", Sort.Direction.ASC, null, 2).getNextCursor();
+
+        returning(row("p3", 999L));
+        find("price", Sort.Direction.ASC, cursor, 2);
+
+        assertThat(queries.get(1).getQueryObject()).isEqualTo(new Document("$or", List.of(
+                new Document("price", new Document("$gt", 999L)),
+                new Document("$and", List.of(
+                        new Document("price", 999L),
+                        new Document("id", new Document("$gt", "p2")))))));
+    }
+
+    @Test
+    void descendingCursorSeeksBelowTheLastRow() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000);
+        returning(row("o9", LocalDateTime.of(2024, 3, 2, 0, 0)), row("o8", createdAt), row("o7", createdAt));
+        String cursor = find("createdAt", Sort.Direction.DESC, null, 2).getNextCursor();
+
+        returning();
+        find("createdAt", Sort.Direction.DESC, cursor, 2);
+
+        assertThat(queries.get(0).getSortObject()).isEqualTo(new Document("createdAt", -1).append("id", -1));
+        assertThat(queries.get(1).getQueryObject()).isEqualTo(new Document("$or", List.of(
+                new Document("createdAt", new Document("$lt", createdAt)),
+                new Document("$and", List.of(
+                        new Document("createdAt", createdAt),
+                        new Document("id", new Document("$lt", "o8")))))));
+    }
+
+    @Test
+    void cursorKeepsTheTypeOfTheSortValue() {
+        assertThat(seekValueAfter(42)).isEqualTo(42L);
+        assertThat(seekValueAfter(19.99)).isEqualTo(19.99);
+        assertThat(seekValueAfter("Electronics")).isEqualTo("Electronics");
+        assertThat(seekValueAfter("a\nb")).isEqualTo("a\nb");
+    }
+
+    @Test
+    void idOnlyOrderingSeeksOnTheId() {
+        returning(row("p1", null), row("p2", null));
+        String cursor = KeysetPaging.find(mongoTemplate, Row.class, Row.class, null, null, Sort.Direction.ASC,
+                null, Row::id, null, 1).getNextCursor();
+
+        returning();
+        KeysetPaging.find(mongoTemplate, Row.class, Row.class, null, null, Sort.Direction.ASC,
+                null, Row::id, cursor, 1);
+
+        assertThat(queries.get(0).getSortObject()).isEqualTo(new Document("id", 1));
+        assertThat(queries.get(1).getQueryObject()).isEqualTo(new Document("id", new Document("$gt", "p1")));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        returning();
+        for (String cursor : List.of(
+                "not base64!",
+                encode("no separator"),
+                encode("x:1\np1"),
+                encode("l:ten\np1"),
+                encode("t:yesterday\np1"),
+                encode("\np1"))) {
+            assertThatThrownBy(() -> find("price", Sort.Direction.ASC, cursor, 2))
+                    .as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+        }
+        assertThat(queries).isEmpty();
+    }
+
+    @Test
+    void nonPositiveSizeIsRejected() {
+        assertThatThrownBy(() -> find("price", Sort.Direction.ASC, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Object seekValueAfter(Object value) {
+        queries.clear();
+        returning(row("p1", value), row("p2", value));
+        String cursor = find("field", Sort.Direction.ASC, null, 1).getNextCursor();
+        returning();
+        find("field", Sort.Direction.ASC, cursor, 1);
+        List<?> branches = queries.get(1).getQueryObject().get("$or", List.class);
+        return ((Document) branches.get(0)).get("field", Document.class).get("$gt");
+    }
+
+    private CursorPage<Row> find(String sortField, Sort.Direction direction, String cursor, int size) {
+        return KeysetPaging.find(mongoTemplate, Row.class, Row.class, null, sortField, direction,
+                Row::value, Row::id, cursor, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void returning(Row... rows) {
+        ExecutableFindOperation.ExecutableFind<Row> find = mock(ExecutableFindOperation.ExecutableFind.class);
+        ExecutableFindOperation.TerminatingFind<Row> terminating = mock(ExecutableFindOperation.TerminatingFind.class);
+        when(mongoTemplate.query(Row.class)).thenReturn(find);
+        when(find.as(Row.class)).thenReturn(find);
+        when(find.matching(any(Query.class))).thenAnswer(invocation -> {
+            queries.add(invocation.getArgument(0));
+            return terminating;
+        });
+        when(terminating.all()).thenReturn(new ArrayList<>(List.of(rows)));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Row row(String id, Object value) {
+        return new Row(id, value);
+    }
+
+    private record Row(String id, Object value) {
+    }
+}
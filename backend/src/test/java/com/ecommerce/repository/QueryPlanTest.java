@@ -0,0 +1,339 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.MongoContainerTest;
+import com.ecommerce.config.MongoConfig;
+import com.ecommerce.config.MongoIndexBootstrap;
+import com.ecommerce.dto.ProductQuery;
+import com.ecommerce.model.Address;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.Product;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Explains the custom and derived queries of the product, order and cart repositories against the
+ * indexes {@link MongoIndexBootstrap} creates from the model annotations. A query fails if its
+ * winning plan scans the collection, or if it examines more than
+ * {@value #MAX_EXAMINED_PER_RETURNED} documents per document it returns or skips. A new query
+ * without a matching index, or an index dropped from a model class, fails here rather than in
+ * production.
+ *
+ * <p>Commands are captured from the driver as the repositories send them, so derived queries and
+ * page counts are explained exactly as Spring Data renders them. {@code query()} without a text or
+ * stock filter computes its facets over the whole catalog by design and is not covered.
+ */
+@DataMongoTest
+@Import({MongoConfig.class, MongoIndexBootstrap.class, QueryPlanTest.CaptureConfig.class})
+class QueryPlanTest extends MongoContainerTest {
+
+    private static final double MAX_EXAMINED_PER_RETURNED = 2.0;
+
+    // Winning plan stages that read an index or collection metadata rather than every document
+    private static final Set<String> INDEXED_STAGES = Set.of(
+            "IXSCAN", "IDHACK", "EXPRESS_IXSCAN", "COUNT_SCAN", "DISTINCT_SCAN", "RECORD_STORE_FAST_COUNT");
+
+    private static final String[] WORDS = {"widget", "gadget", "mouse", "keyboard", "lamp", "chair", "mug", "poster"};
+    private static final int PRODUCTS = 5000;
+    private static final int ORDERS = 5000;
+    private static final int CATEGORIES = 40;
+    private static final int USERS = 100;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CommandCapture capture;
+
+    @BeforeEach
+    void seed() {
+        if (mongoTemplate.estimatedCount(Product.class) > 0) {
+            return;
+        }
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Product " + i + " " + WORDS[i % WORDS.length]);
+            product.setDescription("A " + WORDS[(i * 7) % WORDS.length] + " for the query plan tests");
+            product.setCategory("category-" + i % CATEGORIES);
+            product.setPrice(Money.ofMinor(100 + (i * 7919L) % 500_000));
+            product.setStockQuantity(i % 10 == 0 ? 0 : i % 100);
+            product.setVersion(1L);
+            products.add(product);
+        }
+        mongoTemplate.insertAll(products);
+
+        OrderStatus[] statuses = OrderStatus.values();
+        List<Order> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setUserId("user-" + i % USERS);
+            order.setStatus(statuses[i % statuses.length]);
+            order.setItems(List.of(new OrderItem("product-" + i, "Product", "category-1", 1,
+                    Money.ofMinor(100), Money.ofMinor(100))));
+            order.setTotalAmount(Money.ofMinor(100));
+            order.setShippingAddress(new Address("1 Main St", "Pune", "MH", "411001", "India"));
+            orders.add(order);
+        }
+        mongoTemplate.insertAll(orders);
+    }
+
+    @Test
+    void findAllByReadsTheIdIndex() {
+        assertIndexed(() -> productRepository.findAllBy(PageRequest.of(3, 20)));
+    }
+
+    @Test
+    void findByCategoryUsesACategoryIndex() {
+        assertIndexed(() -> productRepository.findByCategory("category-7", PageRequest.of(1, 20)));
+    }
+
+    @Test
+    void findByPriceBetweenUsesThePriceIndex() {
+        assertIndexed(() -> productRepository.findByPriceBetween(
+                Range.closed(Money.ofMinor(10_000), Money.ofMinor(20_000)), PageRequest.of(1, 10)));
+    }
+
+    @Test
+    void findByNameContainingIgnoreCaseUsesTheNameIndex() {
+        assertIndexed(() -> productRepository.findByNameContainingIgnoreCase("product 12", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findByIdInUsesTheIdIndex() {
+        List<String> ids = productRepository.findAllBy(PageRequest.of(5, 20)).map(product -> product.getId()).getContent();
+        assertIndexed(() -> productRepository.findByIdIn(ids));
+    }
+
+    @Test
+    void findByStockQuantityGreaterThanUsesTheStockIndex() {
+        assertIndexed(() -> productRepository.findByStockQuantityGreaterThan(0));
+    }
+
+    @Test
+    void keysetListingsSeekOnTheirIndexes() {
+        String all = productRepository.findAllAfter(null, 50).getNextCursor();
+        assertIndexed(() -> productRepository.findAllAfter(all, 50));
+
+        String category = productRepository.findByCategoryAfter("category-3", null, 20).getNextCursor();
+        assertIndexed(() -> productRepository.findByCategoryAfter("category-3", category, 20));
+
+        Money min = Money.ofMinor(50_000);
+        Money max = Money.ofMinor(150_000);
+        String price = productRepository.findByPriceBetweenAfter(min, max, null, 20).getNextCursor();
+        assertIndexed(() -> productRepository.findByPriceBetweenAfter(min, max, price, 20));
+    }
+
+    @Test
+    void textQueryUsesTheTextIndex() {
+        // 625 products mention "widget"; every match is fetched and returned
+        ProductQuery broad = new ProductQuery();
+        broad.setText("widget");
+        assertIndexed(() -> productRepository.query(broad, PageRequest.of(0, 20)));
+
+        // The text index has no category prefix, so the category is applied to the documents the
+        // text stage fetches. Only Product 1208 matches the term, and it is in category-8.
+        ProductQuery inCategory = new ProductQuery();
+        inCategory.setText("1208");
+        inCategory.setCategory("category-8");
+        assertIndexed(() -> productRepository.query(inCategory, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void inStockQueryUsesTheStockIndex() {
+        ProductQuery query = new ProductQuery();
+        query.setInStockOnly(true);
+        query.setSort(ProductQuery.SortOrder.PRICE_ASC);
+        assertIndexed(() -> productRepository.query(query, PageRequest.of(2, 20)));
+    }
+
+    @Test
+    void adjustStockFindsTheProductById() {
+        String id = productRepository.findAllBy(PageRequest.of(0, 1)).getContent().get(0).getId();
+        assertIndexed(() -> productRepository.adjustStock(id, 0));
+    }
+
+    @Test
+    void orderQueriesUseTheUserAndStatusIndexes() {
+        assertIndexed(() -> orderRepository.findByUserId("user-3"));
+        assertIndexed(() -> orderRepository.findByUserIdAndStatus("user-3", OrderStatus.PENDING));
+        assertIndexed(() -> orderRepository.findByStatus(OrderStatus.SHIPPED));
+    }
+
+    @Test
+    void orderKeysetListingsSeekOnTheCreatedIndexes() {
+        String user = orderRepository.findByUserIdAfter("user-5", null, 10).getNextCursor();
+        assertIndexed(() -> orderRepository.findByUserIdAfter("user-5", user, 10));
+
+        String all = orderRepository.findAllAfter(null, 100).getNextCursor();
+        assertIndexed(() -> orderRepository.findAllAfter(all, 100));
+    }
+
+    @Test
+    void cartQueriesUseTheUserIndex() {
+        CartItem item = new CartItem("product-1", "Product", 1, Money.ofMinor(100), null);
+        cartRepository.addItem("user-1", item);
+        assertIndexed(() -> cartRepository.findByUserId("user-1"));
+        assertIndexed(() -> cartRepository.addItem("user-1", item));
+        assertIndexed(() -> cartRepository.removeItem("user-1", "product-2"));
+    }
+
+    private void assertIndexed(Runnable queries) {
+        capture.clear();
+        queries.run();
+        List<BsonDocument> commands = capture.drain();
+        assertThat(commands).as("captured queries").isNotEmpty();
+
+        for (BsonDocument command : commands) {
+            Document explain = explain(command);
+            List<String> stages = new ArrayList<>();
+            collectWinningStages(explain, false, stages);
+            assertThat(stages).as("winning plan of %s", command.toJson())
+                    .doesNotContain("COLLSCAN")
+                    .containsAnyElementsOf(INDEXED_STAGES);
+
+            // A count returns one document however many it reads, so only the plan is checked
+            if (isCount(command)) {
+                continue;
+            }
+            Document stats = findExecutionStats(explain);
+            assertThat(stats).as("execution stats of %s", command.toJson()).isNotNull();
+            long examined = ((Number) stats.get("totalDocsExamined")).longValue();
+            long returned = ((Number) stats.get("nReturned")).longValue();
+            long skipped = command.containsKey("skip") ? command.getNumber("skip").longValue() : 0;
+            assertThat((double) examined / Math.max(1, returned + skipped))
+                    .as("documents examined per document returned by %s", command.toJson())
+                    .isLessThanOrEqualTo(MAX_EXAMINED_PER_RETURNED);
+        }
+    }
+
+    private Document explain(BsonDocument command) {
+        BsonDocument explained = new BsonDocument();
+        for (Map.Entry<String, BsonValue> field : command.entrySet()) {
+            // Drop the session, transaction number, cluster time and read preference the driver adds
+            String key = field.getKey();
+            if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) {
+                explained.append(key, field.getValue());
+            }
+        }
+        return mongoTemplate.getDb().runCommand(new Document("explain", explained).append("verbosity", "executionStats"));
+    }
+
+    private static boolean isCount(BsonDocument command) {
+        if (command.containsKey("count")) {
+            return true;
+        }
+        return command.containsKey("aggregate") && command.getArray("pipeline").stream()
+                .anyMatch(stage -> stage.asDocument().containsKey("$group"));
+    }
+
+    // Stage names under any winningPlan, which covers the find, aggregate, count and SBE shapes
+    private static void collectWinningStages(Object node, boolean inWinningPlan, List<String> stages) {
+        if (node instanceof Document document) {
+            document.forEach((key, value) -> {
+                if (inWinningPlan && key.equals("stage") && value instanceof String stage) {
+                    stages.add(stage);
+                }
+                collectWinningStages(value, inWinningPlan || key.equals("winningPlan"), stages);
+            });
+        } else if (node instanceof List<?> list) {
+            list.forEach(item -> collectWinningStages(item, inWinningPlan, stages));
+        }
+    }
+
+    // The executionStats of the query, at the top level or under the $cursor stage of a pipeline
+    private static Document findExecutionStats(Object node) {
+        if (node instanceof Document document) {
+            if (document.containsKey("totalDocsExamined") && document.containsKey("nReturned")) {
+                return document;
+            }
+            for (Object value : document.values()) {
+                Document found = findExecutionStats(value);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object item : list) {
+                Document found = findExecutionStats(item);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+
+        @Bean
+        CommandCapture commandCapture() {
+            return new CommandCapture();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer captureCommands(CommandCapture capture) {
+            return settings -> settings.addCommandListener(capture);
+        }
+    }
+
+    static class CommandCapture implements CommandListener {
+
+        private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count", "findAndModify");
+
+        private final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            if (QUERY_COMMANDS.contains(event.getCommandName())) {
+                // The event's document is only valid during the callback
+                commands.add(event.getCommand().clone());
+            }
+        }
+
+        void clear() {
+            commands.clear();
+        }
+
+        List<BsonDocument> drain() {
+            List<BsonDocument> drained = new ArrayList<>(commands);
+            commands.clear();
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Test
+    void updatedProductIsFoundByItsNewTextOnly() {
+        index.index(product("p1", "Red Mug", "Kitchen", "Ceramic mug"));
+        index.index(product("p1", "Blue Lamp", "Home", "Desk lamp"));
+
+        assertThat(ids("mug")).isEmpty();
+        assertThat(ids("lamp")).containsExactly("p1");
+        assertThat(index.getStats()).containsEntry("documents", 1).containsEntry("tombstones", 1);
+    }
+
+    @Test
+    void deletedProductIsNotReturned() {
+        index.index(product("p1", "Red Mug", "Kitchen", null));
+        index.index(product("p2", "Blue Mug", "Kitchen", null));
+
+        index.remove("p1");
+        index.remove("missing");
+
+        assertThat(ids("mug")).containsExactly("p2");
+        assertThat(index.search("mug", PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
+        assertThat(index.getStats()).containsEntry("documents", 1).containsEntry("tombstones", 1);
+    }
+
+    @Test
+    void compactionDropsTombstonesAndKeepsLiveProductsFindable() {
+        int products = 4000;
+        for (int i = 0; i < products; i++) {
+            index.index(product("p" + i, "Widget " + (i % 2 == 0 ? "even" : "odd" + i), "Tools", null));
+        }
+        // Every odd product goes, so one word per odd product leaves the dictionary
+        List<String> removed = new ArrayList<>();
+        for (int i = 1; i < products; i += 2) {
+            index.remove("p" + i);
+            removed.add("p" + i);
+        }
+
+        assertThat((int) index.getStats().get("tombstones")).isLessThan(products / 4);
+        assertThat(index.getStats()).containsEntry("documents", products / 2);
+        assertThat((int) index.getStats().get("terms")).isLessThan(products / 4);
+
+        Page<String> widgets = index.search("widget", PageRequest.of(0, products));
+        assertThat(widgets.getTotalElements()).isEqualTo(products / 2);
+        assertThat(widgets.getContent()).doesNotContainAnyElementsOf(removed);
+        assertThat(ids("even")).hasSize(10).allMatch(id -> Integer.parseInt(id.substring(1)) % 2 == 0);
+        assertThat(ids("odd1")).isEmpty();
+
+        // Writes after a compaction land on the remapped doc ids
+        index.index(product("p0", "Gadget", "Tools", null));
+        assertThat(ids("gadget")).containsExactly("p0");
+        assertThat(index.search("even", PageRequest.of(0, products)).getContent()).doesNotContain("p0");
+    }
+
+    @Test
+    void everyTermMustMatchAndTheLastOneAsAPrefix() {
+        index.index(product("p1", "Wireless Keyboard", "Electronics", null));
+        index.index(product("p2", "Wireless Mouse", "Electronics", null));
+
+        assertThat(ids("wireless keyb")).containsExactly("p1");
+        assertThat(ids("keyb wireless")).isEmpty();
+        assertThat(ids("wireless")).containsExactlyInAnyOrder("p1", "p2");
+    }
+
+    @Test
+    void nameMatchesRankAboveDescriptionMatches() {
+        index.index(product("p1", "Travel Bag", "Luggage", "Fits a lamp"));
+        index.index(product("p2", "Desk Lamp", "Home", "Bright"));
+
+        assertThat(ids("lamp")).containsExactly("p2", "p1");
+    }
+
+    @Test
+    void pagesAreCutFromTheRankedMatches() {
+        for (int i = 0; i < 25; i++) {
+            index.index(product("p" + i, "Poster " + i, "Art", null));
+        }
+
+        Page<String> page = index.search("poster", PageRequest.of(2, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(25);
+        assertThat(page.getContent()).hasSize(5);
+    }
+
+    private List<String> ids(String text) {
+        return index.search(text, PageRequest.of(0, 10)).getContent();
+    }
+
+    private static Product product(String id, String name, String category, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setDescription(description);
+        return product;
+    }
+}
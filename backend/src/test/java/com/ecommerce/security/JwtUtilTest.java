@@ -0,0 +1,79 @@
+package com.ecommerce.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(
+            "0123456789abcdef0123456789abcdef".getBytes());
+    private static final String OTHER_SECRET = Base64.getEncoder().encodeToString(
+            "fedcba9876543210fedcba9876543210".getBytes());
+
+    private static JwtUtil jwtUtil(String secret, long expirationMillis, Duration cacheTtl) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", secret);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expirationMillis);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheTtl", cacheTtl);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    @Test
+    void repeatTokenIsServedFromTheCache() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 60_000, Duration.ofMinutes(5));
+        String token = jwtUtil.generateToken("alice@example.com", "u1");
+
+        Claims first = jwtUtil.extractAllClaims(token);
+        Claims second = jwtUtil.extractAllClaims(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getSubject()).isEqualTo("alice@example.com");
+        assertThat(second.get(JwtUtil.USER_ID_CLAIM, String.class)).isEqualTo("u1");
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceItExpires() throws InterruptedException {
+        // A cache TTL far beyond the token's lifetime: the token's own expiry must still win
+        JwtUtil jwtUtil = jwtUtil(SECRET, 2_000, Duration.ofHours(1));
+        String token = jwtUtil.generateToken("alice@example.com");
+
+        Claims claims = jwtUtil.extractAllClaims(token);
+        long untilExpiry = claims.getExpiration().getTime() - System.currentTimeMillis();
+        Thread.sleep(Math.max(0, untilExpiry) + 100);
+
+        assertThatThrownBy(() -> jwtUtil.extractAllClaims(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 60_000, Duration.ofMinutes(5));
+        String forged = jwtUtil(OTHER_SECRET, 60_000, Duration.ofMinutes(5)).generateToken("alice@example.com");
+
+        assertThatThrownBy(() -> jwtUtil.extractAllClaims(forged)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void tamperedTokenIsNotServedFromTheCache() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 60_000, Duration.ofMinutes(5));
+        String token = jwtUtil.generateToken("alice@example.com");
+        jwtUtil.extractAllClaims(token);
+
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1])).replace("alice", "mallo");
+        String tampered = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes())
+                + "." + parts[2];
+
+        assertThatThrownBy(() -> jwtUtil.extractAllClaims(tampered)).isInstanceOf(JwtException.class);
+    }
+}
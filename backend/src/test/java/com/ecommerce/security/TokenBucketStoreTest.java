@@ -0,0 +1,73 @@
+package com.ecommerce.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketStoreTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    // 3 tokens of burst, refilled at one token every 10 seconds
+    private final TokenBucketStore store = new TokenBucketStore(3, 6, 1000, now::get);
+
+    @Test
+    void allowsTheBurstThenReportsTheWaitForOneToken() {
+        assertThat(store.tryAcquire("1.2.3.4")).isZero();
+        assertThat(store.tryAcquire("1.2.3.4")).isZero();
+        assertThat(store.tryAcquire("1.2.3.4")).isZero();
+
+        assertThat(store.tryAcquire("1.2.3.4")).isEqualTo(TimeUnit.SECONDS.toNanos(10));
+        assertThat(store.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void refillsContinuously() {
+        drain("1.2.3.4", 3);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        assertThat(store.tryAcquire("1.2.3.4")).isEqualTo(TimeUnit.SECONDS.toNanos(6));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertThat(store.tryAcquire("1.2.3.4")).isZero();
+        assertThat(store.tryAcquire("1.2.3.4")).isPositive();
+    }
+
+    @Test
+    void refillStopsAtCapacity() {
+        drain("1.2.3.4", 3);
+
+        now.addAndGet(TimeUnit.HOURS.toNanos(1));
+
+        drain("1.2.3.4", 3);
+        assertThat(store.tryAcquire("1.2.3.4")).isPositive();
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        drain("1.2.3.4", 3);
+
+        assertThat(store.tryAcquire("1.2.3.4")).isPositive();
+        assertThat(store.tryAcquire("5.6.7.8")).isZero();
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        drain("1.2.3.4", 3);
+        for (int i = 0; i < 10; i++) {
+            store.tryAcquire("1.2.3.4");
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(store.tryAcquire("1.2.3.4")).isZero();
+    }
+
+    private void drain(String key, int tokens) {
+        for (int i = 0; i < tokens; i++) {
+            assertThat(store.tryAcquire(key)).isZero();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BestsellerBoardTest {
+
+    private final BestsellerBoard board = new BestsellerBoard();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(board, "windowNames", new String[]{"1h", "24h"});
+        ReflectionTestUtils.setField(board, "bucketsPerWindow", 12);
+        ReflectionTestUtils.setField(board, "capacity", 5);
+        ReflectionTestUtils.setField(board, "categoryCapacity", 3);
+        ReflectionTestUtils.setField(board, "maxCategories", 2);
+        ReflectionTestUtils.setField(board, "topN", 10);
+        board.init();
+    }
+
+    @Test
+    void ranksByUnitsSoldOverallAndPerCategory() {
+        place(minutesAgo(5), item("mug", "Kitchen", 3), item("lamp", "Home", 5));
+        place(minutesAgo(5), item("mug", "Kitchen", 4));
+        place(minutesAgo(5), item("kettle", "Kitchen", 1));
+        board.refresh();
+
+        assertThat(board.top("1h", null, 10)).containsExactly(
+                new BestsellerBoard.Ranked("mug", 7), new BestsellerBoard.Ranked("lamp", 5),
+                new BestsellerBoard.Ranked("kettle", 1));
+        assertThat(board.top("1h", null, 1)).extracting(BestsellerBoard.Ranked::productId).containsExactly("mug");
+        assertThat(board.top("1h", "Kitchen", 10)).extracting(BestsellerBoard.Ranked::productId)
+                .containsExactly("mug", "kettle");
+        assertThat(board.top("1h", "Garden", 10)).isEmpty();
+        assertThat(board.top("7d", null, 10)).isEmpty();
+    }
+
+    @Test
+    void ordersOutsideAWindowAreNotCounted() {
+        place(hoursAgo(3), item("mug", "Kitchen", 10));
+        place(minutesAgo(5), item("lamp", "Home", 1));
+        place(hoursAgo(30), item("chair", "Home", 50));
+        board.refresh();
+
+        assertThat(board.top("1h", null, 10)).extracting(BestsellerBoard.Ranked::productId).containsExactly("lamp");
+        assertThat(board.top("24h", null, 10)).extracting(BestsellerBoard.Ranked::productId)
+                .containsExactly("mug", "lamp");
+    }
+
+    @Test
+    void heavySellerSurvivesAStreamOfOneOffSalesWithoutBeingUndercounted() {
+        // Five counters per slice; a hundred one-off products compete for them
+        for (int i = 0; i < 100; i++) {
+            place(minutesAgo(5), item("phone", "Phones", 2));
+            place(minutesAgo(5), item("noise" + i, "Phones", 1));
+        }
+        board.refresh();
+
+        BestsellerBoard.Ranked top = board.top("1h", null, 1).get(0);
+        assertThat(top.productId()).isEqualTo("phone");
+        // Space-saving only ever overestimates
+        assertThat(top.units()).isGreaterThanOrEqualTo(200);
+        assertThat((long) board.getStats().get("counters")).isLessThanOrEqualTo(2L * 13 * (5 + 2 * 3));
+    }
+
+    @Test
+    void categoriesPastTheCapAreRankedFromTheOverallCounts() {
+        place(minutesAgo(5), item("mug", "Kitchen", 1), item("lamp", "Home", 1));
+        place(minutesAgo(5), item("rake", "Garden", 4), item("hose", "Garden", 2));
+        board.refresh();
+
+        assertThat(board.getStats()).containsEntry("trackedCategories", 2);
+        assertThat(board.top("1h", "Garden", 10)).containsExactly(
+                new BestsellerBoard.Ranked("rake", 4), new BestsellerBoard.Ranked("hose", 2));
+    }
+
+    @Test
+    void cancellationTakesTheUnitsBackOutAndReinstatingAddsThemAgain() {
+        place(minutesAgo(5), item("mug", "Kitchen", 3));
+        Order cancelled = place(minutesAgo(5), item("mug", "Kitchen", 4), item("lamp", "Home", 2));
+
+        changeStatus(cancelled, OrderStatus.PENDING, OrderStatus.CANCELLED);
+        board.refresh();
+        assertThat(board.top("1h", null, 10)).containsExactly(new BestsellerBoard.Ranked("mug", 3));
+        assertThat(board.top("1h", "Kitchen", 10)).containsExactly(new BestsellerBoard.Ranked("mug", 3));
+
+        // Not a transition into or out of CANCELLED
+        changeStatus(cancelled, OrderStatus.CANCELLED, OrderStatus.CANCELLED);
+        changeStatus(place(minutesAgo(5)), OrderStatus.PENDING, OrderStatus.SHIPPED);
+        board.refresh();
+        assertThat(board.top("1h", null, 10)).containsExactly(new BestsellerBoard.Ranked("mug", 3));
+
+        changeStatus(cancelled, OrderStatus.CANCELLED, OrderStatus.PENDING);
+        board.refresh();
+        assertThat(board.top("1h", null, 10)).containsExactly(
+                new BestsellerBoard.Ranked("mug", 7), new BestsellerBoard.Ranked("lamp", 2));
+    }
+
+    @Test
+    void cancellingAnUncountedOrderChangesNothing() {
+        place(minutesAgo(5), item("mug", "Kitchen", 3));
+        Order old = order(hoursAgo(30), item("mug", "Kitchen", 3));
+
+        changeStatus(old, OrderStatus.PENDING, OrderStatus.CANCELLED);
+        board.refresh();
+
+        assertThat(board.top("24h", null, 10)).containsExactly(new BestsellerBoard.Ranked("mug", 3));
+    }
+
+    @Test
+    void removedProductLeavesTheLeaderboards() {
+        place(minutesAgo(5), item("mug", "Kitchen", 3), item("kettle", "Kitchen", 1));
+        board.refresh();
+
+        board.remove("mug");
+
+        assertThat(board.top("1h", null, 10)).extracting(BestsellerBoard.Ranked::productId).containsExactly("kettle");
+        assertThat(board.top("1h", "Kitchen", 10)).extracting(BestsellerBoard.Ranked::productId).containsExactly("kettle");
+    }
+
+    @Test
+    void versionChangesOnlyWhenTheLeaderboardsDo() {
+        board.refresh();
+        long version = board.getVersion();
+
+        board.refresh();
+        assertThat(board.getVersion()).isEqualTo(version);
+
+        place(minutesAgo(5), item("mug", "Kitchen", 1));
+        assertThat(board.getVersion()).isEqualTo(version);
+        board.refresh();
+        assertThat(board.getVersion()).isGreaterThan(version);
+    }
+
+    private Order place(LocalDateTime createdAt, OrderItem... items) {
+        Order order = order(createdAt, items);
+        board.onOrderPlaced(new OrderPlacedEvent(order));
+        return order;
+    }
+
+    private void changeStatus(Order order, OrderStatus from, OrderStatus to) {
+        order.setStatus(to);
+        board.onOrderStatusChanged(new OrderStatusChangedEvent(order, from));
+    }
+
+    private static Order order(LocalDateTime createdAt, OrderItem... items) {
+        Order order = new Order();
+        order.setCreatedAt(createdAt);
+        order.setStatus(OrderStatus.PENDING);
+        order.setItems(new ArrayList<>(List.of(items)));
+        return order;
+    }
+
+    private static OrderItem item(String productId, String category, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setCategory(category);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static LocalDateTime minutesAgo(long minutes) {
+        return LocalDateTime.now().minusMinutes(minutes);
+    }
+
+    private static LocalDateTime hoursAgo(long hours) {
+        return LocalDateTime.now().minusHours(hours);
+    }
+}
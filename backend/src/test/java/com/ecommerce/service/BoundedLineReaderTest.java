@@ -0,0 +1,52 @@
+package com.ecommerce.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedLineReaderTest {
+
+    @Test
+    void splitsOnEveryLineTerminatorKeepingBlankLines() throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(new StringReader("a\r\nb\n\nc\rd"), 10);
+
+        List<String> lines = new ArrayList<>();
+        List<Long> numbers = new ArrayList<>();
+        String line;
+        while ((line = reader.next()) != null) {
+            lines.add(line);
+            numbers.add(reader.getLine());
+        }
+
+        assertThat(lines).containsExactly("a", "b", "", "c", "d");
+        assertThat(numbers).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void skipsAnOverlongLineAndCarriesOn() throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(new StringReader("short\n" + "x".repeat(20_000) + "\r\nnext"), 8);
+
+        assertThat(reader.next()).isEqualTo("short");
+        assertThatThrownBy(reader::next)
+                .isInstanceOfSatisfying(BoundedLineReader.LineTooLongException.class,
+                        e -> assertThat(e.getLine()).isEqualTo(2))
+                .hasMessage("Line has 20000 characters; the limit is 8");
+        assertThat(reader.next()).isEqualTo("next");
+        assertThat(reader.getLine()).isEqualTo(3);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void acceptsALineOfExactlyTheLimit() throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(new StringReader("12345678\n"), 8);
+
+        assertThat(reader.next()).isEqualTo("12345678");
+        assertThat(reader.next()).isNull();
+    }
+}
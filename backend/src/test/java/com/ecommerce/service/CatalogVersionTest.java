@@ -0,0 +1,96 @@
+package com.ecommerce.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogVersionTest {
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    // Version served when each event was published
+    private final List<Long> servedAtEvent = new ArrayList<>();
+    private final List<CatalogChangedElsewhereEvent> events = new ArrayList<>();
+
+    // The shared document, as other instances would see it
+    private long shared = 1_000;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationEventPublisher publisher = event -> {
+            servedAtEvent.add(catalogVersion.current());
+            events.add((CatalogChangedElsewhereEvent) event);
+        };
+        ReflectionTestUtils.setField(catalogVersion, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(catalogVersion, "eventPublisher", publisher);
+
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("catalog_version"))).thenAnswer(invocation -> {
+                    Update update = invocation.getArgument(1);
+                    if (update.getUpdateObject().containsKey("$inc")) {
+                        shared++;
+                    }
+                    return new Document("_id", "catalog").append("version", shared);
+                });
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("catalog_version")))
+                .thenAnswer(invocation -> new Document("_id", "catalog").append("version", shared));
+
+        catalogVersion.init();
+    }
+
+    @Test
+    void startsFromTheSharedVersion() {
+        assertThat(catalogVersion.current()).isEqualTo(1_000);
+    }
+
+    @Test
+    void ownBumpsAreServedAtOnceWithoutAFlush() {
+        catalogVersion.bump();
+        catalogVersion.bump();
+        catalogVersion.poll();
+
+        assertThat(catalogVersion.current()).isEqualTo(1_002);
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void pollFlushesBeforeServingAWriteMadeElsewhere() {
+        shared += 3;
+
+        catalogVersion.poll();
+
+        assertThat(events).extracting(CatalogChangedElsewhereEvent::version).containsExactly(1_003L);
+        assertThat(servedAtEvent).containsExactly(1_000L);
+        assertThat(catalogVersion.current()).isEqualTo(1_003);
+
+        catalogVersion.poll();
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    void bumpThatSkipsAWriteMadeElsewhereFlushesToo() {
+        shared++;
+
+        catalogVersion.bump();
+
+        assertThat(events).extracting(CatalogChangedElsewhereEvent::version).containsExactly(1_002L);
+        assertThat(servedAtEvent).containsExactly(1_000L);
+        assertThat(catalogVersion.current()).isEqualTo(1_002);
+    }
+}
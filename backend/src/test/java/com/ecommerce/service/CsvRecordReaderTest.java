@@ -0,0 +1,103 @@
+package com.ecommerce.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void splitsPlainFieldsKeepingEmptyOnes() throws IOException {
+        assertThat(readAll("name,price\nMug,,9.99,\n"))
+                .containsExactly(List.of("name", "price"), List.of("Mug", "", "9.99", ""));
+    }
+
+    @Test
+    void unquotesFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        String csv = "\"Mug, large\",\"The \"\"best\"\" mug\",\"line one\nline two\"\n";
+
+        assertThat(readAll(csv))
+                .containsExactly(List.of("Mug, large", "The \"best\" mug", "line one\nline two"));
+    }
+
+    @Test
+    void acceptsCrlfBlankLinesAndAMissingFinalLineBreak() throws IOException {
+        assertThat(readAll("a,b\r\n\r\n\nc,d\r\ne,f"))
+                .containsExactly(List.of("a", "b"), List.of("c", "d"), List.of("e", "f"));
+    }
+
+    @Test
+    void reportsTheLineEachRecordStartsOn() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a\n\"multi\nline\nfield\"\n\nb\n"));
+
+        reader.next();
+        assertThat(reader.getRecordLine()).isEqualTo(1);
+        reader.next();
+        assertThat(reader.getRecordLine()).isEqualTo(2);
+        reader.next();
+        assertThat(reader.getRecordLine()).isEqualTo(6);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void unterminatedQuoteIsAMalformedRecordAtItsFirstLine() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("ok,1\n\"broken,2\nmore\n"));
+
+        assertThat(reader.next()).containsExactly("ok", "1");
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(CsvRecordReader.MalformedRecordException.class)
+                .hasMessage("Unterminated quoted field")
+                .extracting(e -> ((CsvRecordReader.MalformedRecordException) e).getLine())
+                .isEqualTo(2L);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void fieldsAndLineBreaksMayStraddleReads() throws IOException {
+        String longField = "x".repeat(20_000);
+        String csv = "a,\"" + longField + "\"\r\nb,\"q\"\"\"\r\n";
+
+        // One character per read puts every CRLF and doubled quote across a buffer refill
+        CsvRecordReader reader = new CsvRecordReader(new OneCharReader(csv));
+
+        assertThat(reader.next()).containsExactly("a", longField);
+        assertThat(reader.next()).containsExactly("b", "q\"");
+        assertThat(reader.getRecordLine()).isEqualTo(2);
+        assertThat(reader.next()).isNull();
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(csv));
+        List<List<String>> records = new ArrayList<>();
+        for (List<String> record = reader.next(); record != null; record = reader.next()) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static final class OneCharReader extends Reader {
+
+        private final StringReader delegate;
+
+        private OneCharReader(String text) {
+            this.delegate = new StringReader(text);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return delegate.read(buffer, offset, Math.min(1, length));
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class FrequentlyBoughtTogetherTest {
+
+    private final FrequentlyBoughtTogether related = new FrequentlyBoughtTogether();
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(related, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(related, "topK", 3);
+        ReflectionTestUtils.setField(related, "capacityFactor", 2);
+        ReflectionTestUtils.setField(related, "maxItemsPerOrder", 4);
+        related.init();
+        ReflectionTestUtils.setField(related, "ready", true);
+    }
+
+    @Test
+    void ranksNeighboursByHowOftenTheyShareAnOrder() {
+        place("mug", "coaster", "tea");
+        place("mug", "coaster");
+        place("mug", "coaster", "spoon");
+        place("mug", "tea");
+
+        assertThat(related.related("mug", 10)).containsExactly("coaster", "tea", "spoon");
+        assertThat(related.related("mug", 2)).containsExactly("coaster", "tea");
+        assertThat(related.related("coaster", 10)).startsWith("mug");
+        assertThat(related.related("unknown", 10)).isEmpty();
+    }
+
+    @Test
+    void heavyNeighbourSurvivesAStreamOfOneOffPairings() {
+        // Six counters per product; two hundred distinct neighbours compete for them
+        for (int i = 0; i < 200; i++) {
+            place("phone", "case");
+            place("phone", "noise" + i);
+        }
+        place("phone", "charger");
+        place("phone", "charger");
+
+        List<String> top = related.related("phone", 3);
+        assertThat(top).first().isEqualTo("case");
+        assertThat(top).hasSize(3);
+    }
+
+    @Test
+    void compactionTrimsEachTouchedProductToTopKAndSnapshotsIt() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), anyString())).thenReturn(bulk);
+        for (int i = 0; i < 50; i++) {
+            place("desk", "lamp");
+        }
+        for (int i = 0; i < 20; i++) {
+            place("desk", "noise" + i);
+        }
+
+        related.compact();
+
+        ArgumentCaptor<Document> row = ArgumentCaptor.forClass(Document.class);
+        verify(bulk, atLeastOnce()).replaceOne(any(Query.class), row.capture(), any(FindAndReplaceOptions.class));
+        Document desk = row.getAllValues().stream()
+                .filter(document -> "desk".equals(document.getString("_id")))
+                .findFirst().orElseThrow();
+        List<Document> neighbours = desk.getList("related", Document.class);
+        assertThat(neighbours).hasSize(3);
+        assertThat(neighbours.get(0)).isEqualTo(new Document("productId", "lamp").append("count", 50L));
+        assertThat(neighbours).extracting(neighbour -> neighbour.getLong("count")).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(related.related("desk", 10)).hasSize(3).first().isEqualTo("lamp");
+
+        // Nothing touched since, so the next run writes nothing
+        clearInvocations(bulk);
+        related.compact();
+        verifyNoInteractions(bulk);
+    }
+
+    @Test
+    void repeatedProductsInOneOrderCountOnceAndLargeOrdersPairOnlyTheirFirstItems() {
+        place("a", "b", "b", "c", "d", "e");
+
+        assertThat(related.related("a", 10)).containsExactlyInAnyOrder("b", "c", "d");
+        assertThat(related.related("e", 10)).isEmpty();
+    }
+
+    @Test
+    void removedProductLeavesEveryNeighbourList() {
+        place("mug", "coaster", "tea");
+        long version = related.getVersion();
+
+        related.remove("coaster");
+
+        assertThat(related.related("coaster", 10)).isEmpty();
+        assertThat(related.related("mug", 10)).containsExactly("tea");
+        assertThat(related.related("tea", 10)).containsExactly("mug");
+        assertThat(related.getVersion()).isGreaterThan(version);
+    }
+
+    @Test
+    void everyRecordedOrderChangesTheVersion() {
+        long version = related.getVersion();
+
+        place("mug", "tea");
+
+        assertThat(related.getVersion()).isGreaterThan(version);
+    }
+
+    @Test
+    void servesNothingUntilLoaded() {
+        place("mug", "tea");
+        ReflectionTestUtils.setField(related, "ready", false);
+
+        assertThat(related.related("mug", 10)).isEmpty();
+    }
+
+    private void place(String... productIds) {
+        List<OrderItem> items = new ArrayList<>();
+        for (String productId : productIds) {
+            OrderItem item = new OrderItem();
+            item.setProductId(productId);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        Order order = new Order();
+        order.setItems(items);
+        related.onOrderPlaced(new OrderPlacedEvent(order));
+    }
+}
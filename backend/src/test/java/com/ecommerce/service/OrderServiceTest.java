@@ -0,0 +1,96 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.model.Address;
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTest {
+
+    private final OrderService orderService = new OrderService();
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final CartService cartService = mock(CartService.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "productService", productService);
+        ReflectionTestUtils.setField(orderService, "cartService", cartService);
+        ReflectionTestUtils.setField(orderService, "eventPublisher", mock(ApplicationEventPublisher.class));
+
+        Cart cart = new Cart();
+        cart.setUserId("u1");
+        cart.setItems(List.of(line("mug", 2), line("tea", 1), line("spoon", 3)));
+        cart.setTotalAmount(Money.ofMinor(600));
+        when(cartService.getCart("u1")).thenReturn(cart);
+        when(productService.getProductsByIds(anyCollection())).thenReturn(Map.of(
+                "mug", product("mug"), "tea", product("tea"), "spoon", product("spoon")));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void stockIsDeductedThroughTheConditionalDecrement() {
+        // The cached products claim no stock at all; only the decrements decide
+        Order order = orderService.createOrder("u1", new Address());
+
+        assertThat(order.getItems()).extracting("category").containsOnly("kitchen");
+        verify(productService).updateStock("mug", -2);
+        verify(productService).updateStock("tea", -1);
+        verify(productService).updateStock("spoon", -3);
+        verify(cartService).clearCart("u1");
+    }
+
+    @Test
+    void failedDecrementGivesBackTheStockAlreadyTaken() {
+        doThrow(new InsufficientStockException("Insufficient stock for product: tea"))
+                .when(productService).updateStock("tea", -1);
+
+        assertThatThrownBy(() -> orderService.createOrder("u1", new Address()))
+                .isInstanceOf(InsufficientStockException.class);
+
+        var order = inOrder(productService);
+        order.verify(productService).updateStock("mug", -2);
+        order.verify(productService).updateStock("tea", -1);
+        order.verify(productService).updateStock("mug", 2);
+        verify(productService, never()).updateStock("spoon", -3);
+        verify(productService, never()).updateStock("tea", 1);
+        verify(orderRepository, never()).save(any());
+        verify(cartService, never()).clearCart("u1");
+    }
+
+    private static CartItem line(String productId, int quantity) {
+        return new CartItem(productId, productId, quantity, Money.ofMinor(100), Money.ofMinor(100L * quantity));
+    }
+
+    private static Product product(String id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(id);
+        product.setCategory("kitchen");
+        product.setStockQuantity(0);
+        return product;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.web;
+
+import com.ecommerce.service.CatalogChangedElsewhereEvent;
+import com.ecommerce.service.ProductChangedEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    private final ResponseCacheFilter filter = new ResponseCacheFilter();
+
+    // Paths the controller was actually called for
+    private final List<String> rendered = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "maxSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(filter, "ttl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(filter, "gzipMinSize", DataSize.ofBytes(16));
+        filter.init();
+    }
+
+    @Test
+    void missAndHitBothVaryOnEncodingUnderAWeakEtag() throws Exception {
+        MockHttpServletResponse miss = get("/api/products/p1");
+        MockHttpServletResponse hit = get("/api/products/p1");
+
+        assertThat(rendered).hasSize(1);
+        for (MockHttpServletResponse response : List.of(miss, hit)) {
+            assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+            assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"3\"");
+        }
+    }
+
+    @Test
+    void stockChangeDropsOnlyTheResponsesShowingTheProduct() throws Exception {
+        get("/api/products", "p1", "p2");
+        get("/api/products/category/tea", "p3");
+        get("/api/products/p1");
+        get("/api/products/p3");
+
+        filter.onProductChanged(new ProductChangedEvent("p1", true));
+        get("/api/products", "p1", "p2");
+        get("/api/products/category/tea", "p3");
+        get("/api/products/p1");
+        get("/api/products/p3");
+
+        assertThat(rendered).containsExactly("/api/products", "/api/products/category/tea",
+                "/api/products/p1", "/api/products/p3", "/api/products", "/api/products/p1");
+    }
+
+    @Test
+    void otherWritesClearEverything() throws Exception {
+        get("/api/products/category/tea", "p3");
+        get("/api/products/p3");
+
+        filter.onProductChanged(new ProductChangedEvent("p1", false));
+        get("/api/products/category/tea", "p3");
+        filter.onCatalogChangedElsewhere(new CatalogChangedElsewhereEvent(2));
+        get("/api/products/p3");
+
+        assertThat(rendered).containsExactly("/api/products/category/tea", "/api/products/p3",
+                "/api/products/category/tea", "/api/products/p3");
+    }
+
+    private MockHttpServletResponse get(String path, String... shownProducts) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            rendered.add(path);
+            if (shownProducts.length > 0) {
+                req.setAttribute(ResponseCacheFilter.SHOWN_PRODUCTS_ATTRIBUTE, shownProducts);
+            }
+            HttpServletResponse http = (HttpServletResponse) res;
+            http.setContentType("application/json");
+            http.setHeader(HttpHeaders.ETAG, "\"3\"");
+            http.getOutputStream().write(("{\"success\":true,\"path\":\"" + path + "\"}").getBytes(StandardCharsets.UTF_8));
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
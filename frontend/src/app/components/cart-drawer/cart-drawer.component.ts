@@ -3,6 +3,8 @@ import { CommonModule, CurrencyPipe } from '@angular/common';
 import { Router, RouterLink } from '@angular/router';
 import { CartService } from '../../services/cart.service';
 import { AuthService } from '../../services/auth.service';
+import { Cart } from '../../models/api.models';
+import { Observable } from 'rxjs';
 
 @Component({
     selector: 'app-cart-drawer',
@@ -24,6 +26,9 @@ export class CartDrawerComponent {
     authService = inject(AuthService);
     router = inject(Router);
 
+    // Batch the last change joined; each batch is subscribed once so a failure logs once
+    private batch: Observable<Cart> | null = null;
+
     ngOnChanges() {
         // Fetch cart when drawer opens
         if (this.isOpen && this.authService.isLoggedIn()) {
@@ -34,14 +39,20 @@ export class CartDrawerComponent {
     updateQuantity(productId: string, quantity: number) {
         if (quantity < 1) return;
 
-        this.cartService.updateItemQuantity(productId, quantity).subscribe({
-            error: (err) => console.error('Failed to update quantity:', err)
-        });
+        this.queueChange(productId, quantity);
     }
 
     removeItem(productId: string) {
-        this.cartService.removeItem(productId).subscribe({
-            error: (err) => console.error('Failed to remove item:', err)
+        this.queueChange(productId, 0);
+    }
+
+    private queueChange(productId: string, quantity: number) {
+        const batch = this.cartService.queueChange(productId, quantity);
+        if (batch === this.batch) return;
+
+        this.batch = batch;
+        batch.subscribe({
+            error: (err) => console.error('Failed to update cart:', err)
         });
     }
 
@@ -1,7 +1,7 @@
 import { Component, Input, inject } from '@angular/core';
 import { CartService } from '../../services/cart.service';
 import { CurrencyPipe } from '@angular/common';
-import { Product } from '../../models/api.models';
+import { ProductSummary } from '../../models/api.models';
 import { AuthService } from '../../services/auth.service';
 import { Router } from '@angular/router';
 
@@ -17,7 +17,7 @@ import { Router } from '@angular/router';
   `]
 })
 export class ProductCardComponent {
-  @Input() product!: Product;
+  @Input() product!: ProductSummary;
 
   cartService = inject(CartService);
   authService = inject(AuthService);
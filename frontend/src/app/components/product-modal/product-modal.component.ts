@@ -1,7 +1,8 @@
-import { Component, Input, Output, EventEmitter, inject, signal, computed } from '@angular/core';
+import { Component, Input, Output, EventEmitter, OnChanges, SimpleChanges, inject, signal, computed } from '@angular/core';
 import { CommonModule, CurrencyPipe } from '@angular/common';
-import { Product } from '../../models/api.models';
+import { Product, ProductSummary } from '../../models/api.models';
 import { CartService } from '../../services/cart.service';
+import { ProductService } from '../../services/product.service';
 import { WishlistService } from '../../services/wishlist.service';
 import { AuthService } from '../../services/auth.service';
 import { Router } from '@angular/router';
@@ -17,14 +18,15 @@ import { Router } from '@angular/router';
         }
     `]
 })
-export class ProductModalComponent {
-    @Input() product: Product | null = null;
+export class ProductModalComponent implements OnChanges {
+    @Input() product: ProductSummary | null = null;
     @Input() isOpen = false;
 
     @Output() close = new EventEmitter<void>();
     @Output() addedToCart = new EventEmitter<void>();
 
     cartService = inject(CartService);
+    productService = inject(ProductService);
     wishlistService = inject(WishlistService);
     authService = inject(AuthService);
     router = inject(Router);
@@ -32,10 +34,31 @@ export class ProductModalComponent {
     quantity = signal(1);
     adding = signal(false);
 
+    // Listings only carry summaries, so the description comes from the full product
+    details = signal<Product | null>(null);
+
     isInWishlist = computed(() => {
         return this.product ? this.wishlistService.isInWishlist(this.product.id) : false;
     });
 
+    ngOnChanges(changes: SimpleChanges) {
+        if (!changes['product']) return;
+
+        this.details.set(null);
+        const product = this.product;
+        if (!product) return;
+
+        this.productService.getProduct(product.id).subscribe({
+            next: (details) => {
+                // Ignore a response for a product the modal no longer shows
+                if (this.product?.id === details.id) {
+                    this.details.set(details);
+                }
+            },
+            error: (err) => console.error('Failed to load product details:', err)
+        });
+    }
+
     incrementQuantity() {
         if (this.product && this.quantity() < this.product.stockQuantity) {
             this.quantity.update(q => q + 1);
@@ -7,11 +7,6 @@ export interface ApiResponse<T> {
 
 export interface PaginatedResponse<T> {
     content: T[];
-    pageable: {
-        pageNumber: number;
-        pageSize: number;
-        offset: number;
-    };
     totalElements: number;
     totalPages: number;
     size: number;
@@ -73,6 +68,16 @@ export interface Product {
     updatedAt: string;
 }
 
+// Listing and search endpoints return summaries; GET /api/products/{id} returns the full Product
+export interface ProductSummary {
+    id: string;
+    name: string;
+    price: number;
+    category: string;
+    stockQuantity: number;
+    imageUrl: string;
+}
+
 export interface CreateProductRequest {
     name: string;
     description: string;
@@ -117,6 +122,16 @@ export interface UpdateCartItemRequest {
     quantity: number;
 }
 
+export interface CartOperation {
+    type: 'ADD' | 'UPDATE' | 'REMOVE';
+    productId: string;
+    quantity?: number;  // Required for ADD and UPDATE
+}
+
+export interface UpdateCartRequest {
+    operations: CartOperation[];
+}
+
 // Order Models
 export type OrderStatus = 'PENDING' | 'PROCESSING' | 'SHIPPED' | 'DELIVERED' | 'CANCELLED';
 
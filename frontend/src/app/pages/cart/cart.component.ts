@@ -3,6 +3,7 @@ import { CartService } from '../../services/cart.service';
 import { CurrencyPipe } from '@angular/common';
 import { RouterLink } from '@angular/router';
 import { Cart } from '../../models/api.models';
+import { Observable } from 'rxjs';
 
 @Component({
   selector: 'app-cart',
@@ -15,6 +16,9 @@ export class CartComponent {
   cartService = inject(CartService);
   loading = signal(false);
 
+  // Batch the last change joined; each batch is subscribed once so a failure alerts once
+  private batch: Observable<Cart> | null = null;
+
   ngOnInit() {
     this.loadCart();
   }
@@ -33,18 +37,22 @@ export class CartComponent {
   updateQuantity(productId: string, quantity: number) {
     if (quantity < 1) return;
 
-    this.cartService.updateItemQuantity(productId, quantity).subscribe({
-      next: () => console.log('Quantity updated'),
-      error: (err) => alert('Failed to update quantity: ' + err.message)
-    });
+    this.queueChange(productId, quantity);
   }
 
   removeItem(productId: string) {
     if (!confirm('Remove this item from cart?')) return;
 
-    this.cartService.removeItem(productId).subscribe({
-      next: () => console.log('Item removed'),
-      error: (err) => alert('Failed to remove item: ' + err.message)
+    this.queueChange(productId, 0);
+  }
+
+  private queueChange(productId: string, quantity: number) {
+    const batch = this.cartService.queueChange(productId, quantity);
+    if (batch === this.batch) return;
+
+    this.batch = batch;
+    batch.subscribe({
+      error: (err) => alert('Failed to update cart: ' + err.message)
     });
   }
 
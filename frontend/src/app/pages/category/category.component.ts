@@ -3,7 +3,7 @@ import { CommonModule } from '@angular/common';
 import { ActivatedRoute, Router, RouterLink } from '@angular/router';
 import { FormsModule } from '@angular/forms';
 import { ProductService } from '../../services/product.service';
-import { Product } from '../../models/api.models';
+import { ProductSummary } from '../../models/api.models';
 import { ProductCardComponent } from '../../components/product-card/product-card.component';
 import { ProductModalComponent } from '../../components/product-modal/product-modal.component';
 
@@ -53,7 +53,7 @@ export class CategoryComponent implements OnInit {
     categoryInfo = computed(() => CATEGORIES[this.categorySlug()] || null);
 
     // Products and pagination
-    products = signal<Product[]>([]);
+    products = signal<ProductSummary[]>([]);
     currentPage = signal(0);
     totalPages = signal(0);
     totalElements = signal(0);
@@ -65,7 +65,7 @@ export class CategoryComponent implements OnInit {
     searchInput = '';
 
     // Modal
-    selectedProduct = signal<Product | null>(null);
+    selectedProduct = signal<ProductSummary | null>(null);
     isModalOpen = signal(false);
 
     ngOnInit() {
@@ -189,7 +189,7 @@ export class CategoryComponent implements OnInit {
         });
     }
 
-    openProductModal(product: Product) {
+    openProductModal(product: ProductSummary) {
         this.selectedProduct.set(product);
         this.isModalOpen.set(true);
         document.body.style.overflow = 'hidden';
@@ -3,7 +3,7 @@ import { ProductService } from '../../services/product.service';
 import { ProductCardComponent } from '../../components/product-card/product-card.component';
 import { CarouselComponent } from '../../components/carousel/carousel.component';
 import { CategoryCardsComponent } from '../../components/category-cards/category-cards.component';
-import { Product } from '../../models/api.models';
+import { ProductSummary } from '../../models/api.models';
 
 @Component({
   selector: 'app-product-list',
@@ -15,7 +15,7 @@ import { Product } from '../../models/api.models';
 export class ProductListComponent implements OnInit {
   productService = inject(ProductService);
 
-  products = signal<Product[]>([]);
+  products = signal<ProductSummary[]>([]);
   currentPage = signal(0);
   totalPages = signal(0);
   loading = signal(false);
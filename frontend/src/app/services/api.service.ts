@@ -21,6 +21,10 @@ export class ApiService {
         return this.http.put<T>(`${this.baseUrl}${path}`, body);
     }
 
+    patch<T>(path: string, body: any): Observable<T> {
+        return this.http.patch<T>(`${this.baseUrl}${path}`, body);
+    }
+
     delete<T>(path: string): Observable<T> {
         return this.http.delete<T>(`${this.baseUrl}${path}`);
     }
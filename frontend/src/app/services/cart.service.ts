@@ -1,7 +1,7 @@
 import { Injectable, inject, signal } from '@angular/core';
 import { ApiService } from './api.service';
-import { ApiResponse, Cart, AddToCartRequest, UpdateCartItemRequest } from '../models/api.models';
-import { Observable, tap } from 'rxjs';
+import { ApiResponse, Cart, AddToCartRequest, CartOperation, UpdateCartRequest } from '../models/api.models';
+import { Observable, Subject, tap } from 'rxjs';
 import { map } from 'rxjs/operators';
 
 @Injectable({
@@ -10,10 +10,19 @@ import { map } from 'rxjs/operators';
 export class CartService {
     private api = inject(ApiService);
 
+    // Line changes made within this window are sent together in one PATCH
+    private static readonly BATCH_DELAY_MS = 300;
+
     // Signals for reactive cart state
     cart = signal<Cart | null>(null);
     cartCount = signal(0);
 
+    // Latest queued change per product, and the batch waiting to be sent
+    private pendingOperations = new Map<string, CartOperation>();
+    private pendingBatch: Subject<Cart> | null = null;
+    private pendingBatch$: Observable<Cart> | null = null;
+    private batchTimer: ReturnType<typeof setTimeout> | null = null;
+
     getCart(): Observable<Cart> {
         return this.api.get<ApiResponse<Cart>>('/api/cart').pipe(
             map(response => {
@@ -44,9 +53,10 @@ export class CartService {
         );
     }
 
-    updateItemQuantity(productId: string, quantity: number): Observable<Cart> {
-        const request: UpdateCartItemRequest = { quantity };
-        return this.api.put<ApiResponse<Cart>>(`/api/cart/items/${productId}`, request).pipe(
+    // Applies several line changes with one request instead of one request per line
+    updateCart(operations: CartOperation[]): Observable<Cart> {
+        const request: UpdateCartRequest = { operations };
+        return this.api.patch<ApiResponse<Cart>>('/api/cart', request).pipe(
             map(response => {
                 if (!response.success) {
                     throw new Error(response.message);
@@ -60,19 +70,65 @@ export class CartService {
         );
     }
 
-    removeItem(productId: string): Observable<Cart> {
-        return this.api.delete<ApiResponse<Cart>>(`/api/cart/items/${productId}`).pipe(
-            map(response => {
-                if (!response.success) {
-                    throw new Error(response.message);
-                }
-                return response.data;
-            }),
-            tap(cart => {
-                this.cart.set(cart);
-                this.cartCount.set(cart.items.reduce((sum, item) => sum + item.quantity, 0));
-            })
-        );
+    /**
+     * Sets a line's quantity, or removes the line when quantity is 0. The change shows in the
+     * cart signal at once and is sent with the other changes queued within BATCH_DELAY_MS. The
+     * returned observable emits the server's cart once the batch is written, and is the same
+     * instance for every change in the batch. If the batch fails, the cart is reloaded.
+     */
+    queueChange(productId: string, quantity: number): Observable<Cart> {
+        this.pendingOperations.set(productId, quantity > 0
+            ? { type: 'UPDATE', productId, quantity }
+            : { type: 'REMOVE', productId });
+        this.applyLocally(productId, quantity);
+
+        if (!this.pendingBatch) {
+            this.pendingBatch = new Subject<Cart>();
+            this.pendingBatch$ = this.pendingBatch.asObservable();
+        }
+        if (this.batchTimer) {
+            clearTimeout(this.batchTimer);
+        }
+        this.batchTimer = setTimeout(() => this.flushChanges(), CartService.BATCH_DELAY_MS);
+        return this.pendingBatch$!;
+    }
+
+    private flushChanges() {
+        const operations = Array.from(this.pendingOperations.values());
+        const batch = this.pendingBatch!;
+        this.pendingOperations.clear();
+        this.pendingBatch = null;
+        this.pendingBatch$ = null;
+        this.batchTimer = null;
+
+        this.updateCart(operations).subscribe({
+            next: cart => {
+                // Keep showing the changes queued while this batch was in flight
+                this.pendingOperations.forEach(operation =>
+                    this.applyLocally(operation.productId, operation.quantity ?? 0));
+                batch.next(cart);
+                batch.complete();
+            },
+            error: err => {
+                batch.error(err);
+                this.getCart().subscribe({ error: () => {} });
+            }
+        });
+    }
+
+    private applyLocally(productId: string, quantity: number) {
+        const cart = this.cart();
+        if (!cart) {
+            return;
+        }
+        const items = quantity > 0
+            ? cart.items.map(item => item.productId === productId
+                ? { ...item, quantity, subtotal: Math.round(item.price * quantity * 100) / 100 }
+                : item)
+            : cart.items.filter(item => item.productId !== productId);
+        const totalAmount = Math.round(items.reduce((sum, item) => sum + item.subtotal * 100, 0)) / 100;
+        this.cart.set({ ...cart, items, totalAmount });
+        this.cartCount.set(items.reduce((sum, item) => sum + item.quantity, 0));
     }
 
     clearCart(): Observable<void> {
@@ -1,7 +1,7 @@
 import { Injectable, inject } from '@angular/core';
 import { ApiService } from './api.service';
 import { Observable } from 'rxjs';
-import { ApiResponse, PaginatedResponse, Product, CreateProductRequest, UpdateProductRequest } from '../models/api.models';
+import { ApiResponse, PaginatedResponse, Product, ProductSummary, CreateProductRequest, UpdateProductRequest } from '../models/api.models';
 import { map } from 'rxjs/operators';
 
 @Injectable({
@@ -10,8 +10,8 @@ import { map } from 'rxjs/operators';
 export class ProductService {
     private api = inject(ApiService);
 
-    getAllProducts(page: number = 0, size: number = 10): Observable<PaginatedResponse<Product>> {
-        return this.api.get<ApiResponse<PaginatedResponse<Product>>>(`/api/products?page=${page}&size=${size}`).pipe(
+    getAllProducts(page: number = 0, size: number = 10): Observable<PaginatedResponse<ProductSummary>> {
+        return this.api.get<ApiResponse<PaginatedResponse<ProductSummary>>>(`/api/products?page=${page}&size=${size}`).pipe(
             map(response => {
                 if (!response.success) {
                     throw new Error(response.message);
@@ -32,8 +32,8 @@ export class ProductService {
         );
     }
 
-    searchProducts(query: string, page: number = 0, size: number = 10): Observable<PaginatedResponse<Product>> {
-        return this.api.get<ApiResponse<PaginatedResponse<Product>>>(`/api/products/search?q=${encodeURIComponent(query)}&page=${page}&size=${size}`).pipe(
+    searchProducts(query: string, page: number = 0, size: number = 10): Observable<PaginatedResponse<ProductSummary>> {
+        return this.api.get<ApiResponse<PaginatedResponse<ProductSummary>>>(`/api/products/search?q=${encodeURIComponent(query)}&page=${page}&size=${size}`).pipe(
             map(response => {
                 if (!response.success) {
                     throw new Error(response.message);
@@ -43,8 +43,8 @@ export class ProductService {
         );
     }
 
-    getProductsByCategory(category: string, page: number = 0, size: number = 10): Observable<PaginatedResponse<Product>> {
-        return this.api.get<ApiResponse<PaginatedResponse<Product>>>(`/api/products/category/${encodeURIComponent(category)}?page=${page}&size=${size}`).pipe(
+    getProductsByCategory(category: string, page: number = 0, size: number = 10): Observable<PaginatedResponse<ProductSummary>> {
+        return this.api.get<ApiResponse<PaginatedResponse<ProductSummary>>>(`/api/products/category/${encodeURIComponent(category)}?page=${page}&size=${size}`).pipe(
             map(response => {
                 if (!response.success) {
                     throw new Error(response.message);
@@ -54,8 +54,8 @@ export class ProductService {
         );
     }
 
-    getProductsByPriceRange(minPrice: number, maxPrice: number, page: number = 0, size: number = 10): Observable<PaginatedResponse<Product>> {
-        return this.api.get<ApiResponse<PaginatedResponse<Product>>>(`/api/products/price-range?minPrice=${minPrice}&maxPrice=${maxPrice}&page=${page}&size=${size}`).pipe(
+    getProductsByPriceRange(minPrice: number, maxPrice: number, page: number = 0, size: number = 10): Observable<PaginatedResponse<ProductSummary>> {
+        return this.api.get<ApiResponse<PaginatedResponse<ProductSummary>>>(`/api/products/price-range?minPrice=${minPrice}&maxPrice=${maxPrice}&page=${page}&size=${size}`).pipe(
             map(response => {
                 if (!response.success) {
                     throw new Error(response.message);
@@ -1,5 +1,5 @@
 import { Injectable, signal, computed } from '@angular/core';
-import { Product } from '../models/api.models';
+import { ProductSummary } from '../models/api.models';
 
 export interface WishlistItem {
     productId: string;
@@ -48,7 +48,7 @@ export class WishlistService {
         return this.wishlistItems().some(item => item.productId === productId);
     }
 
-    addToWishlist(product: Product): void {
+    addToWishlist(product: ProductSummary): void {
         if (this.isInWishlist(product.id)) return;
 
         const newItem: WishlistItem = {
@@ -70,7 +70,7 @@ export class WishlistService {
         this.saveToStorage(updatedItems);
     }
 
-    toggleWishlist(product: Product): boolean {
+    toggleWishlist(product: ProductSummary): boolean {
         if (this.isInWishlist(product.id)) {
             this.removeFromWishlist(product.id);
             return false;